@@ -0,0 +1,18 @@
+#!/usr/bin/env bash
+# 订单列表行映射 JMH 基准（src/jmh/java/com/nei10u/tip/bench/OrderListMappingBenchmark.java）
+#
+# 用法（仓库根目录）：
+#   scripts/bench/order_list_jmh.sh                 # 全部基准，附 GC 分配统计
+#   scripts/bench/order_list_jmh.sh -p rows=20      # 其余参数原样传给 JMH
+#
+# 关注输出：
+#   - Score（us/op）：每页映射耗时
+#   - ·gc.alloc.rate.norm（B/op）：每页分配字节
+# 对比 fullRowBeanUtils（原列表路径）与 projectionRow（新列表路径），copyBeanUtils 与 copyHandWritten。
+
+set -euo pipefail
+cd "$(dirname "$0")/../.."
+
+mvn -B -q -Pjmh compile dependency:build-classpath -Dmdep.outputFile=target/jmh.classpath
+java -cp "target/classes:$(cat target/jmh.classpath)" org.openjdk.jmh.Main \
+    OrderListMappingBenchmark -prof gc "$@"
@@ -0,0 +1,114 @@
+-- 用户统计概览基准：旧路径（8 条聚合）vs 新路径（单次 FILTER 聚合 / user_earnings_summary）
+--
+-- 用法（独立的基准库，勿在生产库执行）：
+--   createdb tip_bench
+--   psql -d tip_bench -f src/main/resources/sql/schema.sql
+--   psql -d tip_bench -v rows=10000000 -v users=200000 -f scripts/bench/user_summary_bench.sql
+--
+-- 关注输出中每段 EXPLAIN (ANALYZE, BUFFERS) 的 Execution Time 与 shared hit/read；
+-- 旧路径为 8 条语句之和，新路径应为 Index Only Scan（Heap Fetches 接近 0，需 VACUUM 后）。
+
+\set ON_ERROR_STOP on
+\if :{?rows}
+\else
+\set rows 10000000
+\endif
+\if :{?users}
+\else
+\set users 200000
+\endif
+
+-- 1. 造数：rows 条订单均匀分布到 users 个用户，pay_month 覆盖前后 12 个月的 20 号
+TRUNCATE orders;
+INSERT INTO orders (order_sn, user_id, share_fee, credited_fee, order_status, order_lock, refund_status,
+                    pay_month, create_time, update_time)
+SELECT 'bench-' || g,
+       1 + (g % :users),
+       round((random() * 50)::numeric, 2),
+       CASE WHEN g % 4 = 0 THEN round((random() * 50)::numeric, 2) ELSE 0 END,
+       (1 + (g % 4))::smallint,
+       CASE WHEN g % 97 = 0 THEN 1 ELSE 0 END,
+       CASE WHEN g % 53 = 0 THEN 101 ELSE NULL END,
+       to_char(date_trunc('month', now()) + ((g % 24) - 12) * interval '1 month' + interval '19 days', 'YYYYMMDD'),
+       now() - (g % 365) * interval '1 day',
+       now()
+FROM generate_series(1, :rows) g;
+
+VACUUM ANALYZE orders;
+
+-- 汇总表（user-014）：直接按订单表全量生成
+TRUNCATE user_earnings_summary;
+INSERT INTO user_earnings_summary (user_id, pay_month, order_count, valid_order_count, share_fee_total,
+                                   settled_share_fee, receivable_fee, credited_fee, update_time)
+SELECT user_id, COALESCE(pay_month, ''), COUNT(*),
+       COUNT(*) FILTER (WHERE order_status IN (1, 2)),
+       COALESCE(SUM(share_fee), 0),
+       COALESCE(SUM(share_fee) FILTER (WHERE order_status = 2), 0),
+       COALESCE(SUM(share_fee) FILTER (WHERE (order_status IS NULL OR order_status != 3)
+                                         AND (order_lock IS NULL OR order_lock != 1)
+                                         AND (refund_status IS NULL OR refund_status != 101)), 0),
+       COALESCE(SUM(credited_fee), 0),
+       NOW()
+FROM orders
+GROUP BY user_id, COALESCE(pay_month, '');
+
+VACUUM ANALYZE user_earnings_summary;
+
+\set uid 4242
+SELECT to_char(d, 'YYYYMMDD') AS cur_key, to_char(d + interval '1 month', 'YYYYMMDD') AS next_key
+FROM (SELECT (date_trunc('month', now()) + interval '19 days')::date AS d) t \gset
+
+-- 2. 旧路径：StatisticsService 原实现的 8 条聚合
+EXPLAIN (ANALYZE, BUFFERS) SELECT COUNT(*) FROM orders WHERE user_id = :uid;
+EXPLAIN (ANALYZE, BUFFERS) SELECT COUNT(*) FROM orders WHERE user_id = :uid AND order_status IN (1, 2);
+EXPLAIN (ANALYZE, BUFFERS) SELECT COALESCE(SUM(share_fee), 0) FROM orders WHERE user_id = :uid;
+EXPLAIN (ANALYZE, BUFFERS) SELECT COALESCE(SUM(share_fee), 0) FROM orders WHERE user_id = :uid AND order_status IN (2);
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT COALESCE(SUM(share_fee), 0) FROM orders
+WHERE user_id = :uid AND pay_month = :'cur_key'
+  AND (order_status IS NULL OR order_status != 3) AND (order_lock IS NULL OR order_lock != 1)
+  AND (refund_status IS NULL OR refund_status != 101);
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT COALESCE(SUM(share_fee), 0) FROM orders
+WHERE user_id = :uid AND pay_month = :'next_key'
+  AND (order_status IS NULL OR order_status != 3) AND (order_lock IS NULL OR order_lock != 1)
+  AND (refund_status IS NULL OR refund_status != 101);
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT COALESCE(SUM(share_fee), 0) FROM orders
+WHERE user_id = :uid AND pay_month IS NOT NULL AND pay_month > :'next_key'
+  AND (order_status IS NULL OR order_status != 3) AND (order_lock IS NULL OR order_lock != 1)
+  AND (refund_status IS NULL OR refund_status != 101);
+EXPLAIN (ANALYZE, BUFFERS) SELECT COALESCE(SUM(credited_fee), 0) FROM orders WHERE user_id = :uid;
+
+-- 3. 新路径：OrderMapper.selectUserSummary（单次 FILTER 聚合，覆盖索引）
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT COUNT(*),
+       COUNT(*) FILTER (WHERE order_status IN (1, 2)),
+       COALESCE(SUM(share_fee), 0),
+       COALESCE(SUM(share_fee) FILTER (WHERE order_status = 2), 0),
+       COALESCE(SUM(share_fee) FILTER (WHERE pay_month = :'cur_key'
+           AND (order_status IS NULL OR order_status != 3) AND (order_lock IS NULL OR order_lock != 1)
+           AND (refund_status IS NULL OR refund_status != 101)), 0),
+       COALESCE(SUM(share_fee) FILTER (WHERE pay_month = :'next_key'
+           AND (order_status IS NULL OR order_status != 3) AND (order_lock IS NULL OR order_lock != 1)
+           AND (refund_status IS NULL OR refund_status != 101)), 0),
+       COALESCE(SUM(share_fee) FILTER (WHERE pay_month > :'next_key'
+           AND (order_status IS NULL OR order_status != 3) AND (order_lock IS NULL OR order_lock != 1)
+           AND (refund_status IS NULL OR refund_status != 101)), 0),
+       COALESCE(SUM(credited_fee), 0)
+FROM orders
+WHERE user_id = :uid;
+
+-- 4. 汇总表路径：UserEarningsSummaryMapper.selectOverview
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT COUNT(*), SUM(order_count), SUM(valid_order_count), SUM(share_fee_total), SUM(settled_share_fee),
+       SUM(receivable_fee) FILTER (WHERE pay_month = :'cur_key'),
+       SUM(receivable_fee) FILTER (WHERE pay_month = :'next_key'),
+       SUM(receivable_fee) FILTER (WHERE pay_month > :'next_key'),
+       SUM(credited_fee)
+FROM user_earnings_summary
+WHERE user_id = :uid;
+
+-- 5. 吞吐：pgbench 对比（可选）
+--   echo "\set uid random(1, 200000)" > /tmp/new.sql && 追加第 3 段 SELECT（去掉 EXPLAIN）
+--   pgbench -n -c 16 -j 4 -T 60 -f /tmp/new.sql tip_bench
@@ -0,0 +1,76 @@
+-- orders 非分区表 -> 按 create_time 月度 RANGE 分区表 迁移脚本
+--
+-- 前提：
+--   - PostgreSQL 11+（分区表上的唯一索引 / INCLUDE 索引）
+--   - 停止 tip-backend（同步/结算任务不得在迁移期间写入 orders）
+--   - 已在当前版本启动过一次：create_time 已补齐且为 NOT NULL，uk_orders_order_sn_create_time 已存在
+--     order_sn_keys 已登记全部订单号（分区表上的订单号唯一性由该表保证，本脚本不改动它）
+--
+-- 用法：
+--   psql -d tip -v ON_ERROR_STOP=1 -f scripts/migration/orders_partitioning.sql
+--
+-- 完成后启动应用：schema.sql 会在新表上重建全部索引，OrderPartitionService 预建后续月份分区。
+-- 确认数据无误后再手工 DROP TABLE orders_legacy。
+
+\set ON_ERROR_STOP on
+
+BEGIN;
+
+-- 1. 旧表改名；索引/约束名全局唯一，加 _legacy 后缀以便新表沿用原名
+ALTER TABLE orders RENAME TO orders_legacy;
+
+DO $$
+DECLARE
+    r RECORD;
+BEGIN
+    FOR r IN SELECT indexname FROM pg_indexes
+             WHERE schemaname = current_schema() AND tablename = 'orders_legacy'
+    LOOP
+        EXECUTE format('ALTER INDEX %I RENAME TO %I', r.indexname, r.indexname || '_legacy');
+    END LOOP;
+END $$;
+
+-- 2. 新建分区表（列、默认值、NOT NULL 与旧表一致；id 序列沿用）
+CREATE TABLE orders (LIKE orders_legacy INCLUDING DEFAULTS)
+    PARTITION BY RANGE (create_time);
+ALTER TABLE orders ADD PRIMARY KEY (id, create_time);
+CREATE UNIQUE INDEX uk_orders_order_sn_create_time ON orders(order_sn, create_time);
+ALTER SEQUENCE IF EXISTS orders_id_seq OWNED BY orders.id;
+
+-- 3. 覆盖历史数据范围的月分区（至当月 + 3 个月）与兜底分区
+DO $$
+DECLARE
+    m DATE;
+    last_month DATE;
+BEGIN
+    SELECT date_trunc('month', COALESCE(MIN(create_time), now()))::date INTO m FROM orders_legacy;
+    last_month := (date_trunc('month', now()) + interval '3 months')::date;
+    WHILE m <= last_month LOOP
+        EXECUTE format('CREATE TABLE IF NOT EXISTS %I PARTITION OF orders FOR VALUES FROM (%L) TO (%L)',
+                       'orders_p' || to_char(m, 'YYYYMM'), m, (m + interval '1 month')::date);
+        m := (m + interval '1 month')::date;
+    END LOOP;
+END $$;
+CREATE TABLE IF NOT EXISTS orders_default PARTITION OF orders DEFAULT;
+
+-- 4. 搬数据（大表可按月分批执行 INSERT ... WHERE create_time >= .. AND create_time < ..）
+INSERT INTO orders SELECT * FROM orders_legacy;
+
+-- 5. 校验：行数一致、订单号无重复
+DO $$
+DECLARE
+    n_old BIGINT;
+    n_new BIGINT;
+    n_dup BIGINT;
+BEGIN
+    SELECT COUNT(*) INTO n_old FROM orders_legacy;
+    SELECT COUNT(*) INTO n_new FROM orders;
+    SELECT COUNT(*) INTO n_dup FROM (SELECT order_sn FROM orders GROUP BY order_sn HAVING COUNT(*) > 1) d;
+    IF n_old <> n_new OR n_dup > 0 THEN
+        RAISE EXCEPTION 'orders migration check failed: legacy=%, new=%, duplicated order_sn=%', n_old, n_new, n_dup;
+    END IF;
+END $$;
+
+COMMIT;
+
+ANALYZE orders;
@@ -0,0 +1,196 @@
+package com.nei10u.tip.bench;
+
+import com.nei10u.tip.dto.OrderDto;
+import com.nei10u.tip.dto.OrderListItemDto;
+import com.nei10u.tip.model.Order;
+import com.nei10u.tip.service.impl.OrderServiceImpl;
+import org.apache.ibatis.reflection.MetaObject;
+import org.apache.ibatis.session.Configuration;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.beans.BeanUtils;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * 订单列表行映射基准（user-018）：
+ * - copyBeanUtils / copyHandWritten：Order -> OrderDto，反射 BeanUtils.copyProperties vs 手写拷贝
+ * - fullRowBeanUtils：原列表路径，SELECT * 行 -> Order（MyBatis 自动映射）-> BeanUtils 拷贝为 OrderDto
+ * - fullRowHandWritten：同上，拷贝改为手写
+ * - projectionRow：新列表路径，16 列投影行直接映射为 OrderListItemDto
+ * <p>
+ * 行映射用 MyBatis MetaObject 按列名写属性（与自动映射同一套反射缓存），不连数据库，只衡量对象构造与拷贝。
+ * 关注 avgt（每页耗时）与 -prof gc 的 gc.alloc.rate.norm（每页分配字节）。
+ * 运行：scripts/bench/order_list_jmh.sh
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class OrderListMappingBenchmark {
+
+    /** orders 表全部列（SELECT *） */
+    private static final String[] FULL_COLUMNS = {
+            "id", "order_sn", "ds_order_sn", "order_title", "img", "user_id", "sid", "relation_id", "special_id",
+            "ad_zone_id", "type_no", "union_platform", "type_name", "order_price", "pay_price", "share_rate",
+            "share_fee", "credited_fee", "gross_share_fee", "base_deduction_rate", "base_deduction_fee",
+            "platform_profit_rate", "platform_profit_fee", "user_discount", "order_discount", "order_status",
+            "status_content", "order_real_status", "refund_status", "order_lock", "create_time", "pay_time",
+            "earn_time", "modify_time", "update_time", "pay_month", "estimate_date", "punish_reason", "fingerprint"
+    };
+
+    /** 列表投影列（OrderMapper.xml orderListItemColumns） */
+    private static final String[] ITEM_COLUMNS = {
+            "id", "order_sn", "order_title", "img", "type_no", "type_name", "union_platform",
+            "pay_price", "share_fee", "order_status", "status_content",
+            "create_time", "pay_time", "earn_time", "pay_month", "estimate_date"
+    };
+
+    /** 每页行数（页码列表固定 20，游标列表上限 100） */
+    @Param({"20", "100"})
+    public int rows;
+
+    private Configuration configuration;
+    private List<Order> orders;
+    private List<Object[]> fullRows;
+    private List<Object[]> itemRows;
+    private String[] fullProperties;
+    private String[] itemProperties;
+
+    @Setup
+    public void setup() {
+        configuration = new Configuration();
+        configuration.setMapUnderscoreToCamelCase(true);
+
+        orders = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) orders.add(sampleOrder(i));
+
+        fullProperties = properties(Order::new, FULL_COLUMNS);
+        itemProperties = properties(OrderListItemDto::new, ITEM_COLUMNS);
+        fullRows = rowsOf(fullProperties);
+        itemRows = rowsOf(itemProperties);
+    }
+
+    @Benchmark
+    public void copyBeanUtils(Blackhole bh) {
+        for (Order o : orders) {
+            OrderDto dto = new OrderDto();
+            BeanUtils.copyProperties(o, dto);
+            bh.consume(dto);
+        }
+    }
+
+    @Benchmark
+    public void copyHandWritten(Blackhole bh) {
+        for (Order o : orders) bh.consume(OrderServiceImpl.convertToDto(o));
+    }
+
+    @Benchmark
+    public List<OrderDto> fullRowBeanUtils() {
+        List<OrderDto> page = new ArrayList<>(rows);
+        for (Object[] row : fullRows) {
+            Order o = map(new Order(), fullProperties, row);
+            OrderDto dto = new OrderDto();
+            BeanUtils.copyProperties(o, dto);
+            page.add(dto);
+        }
+        return page;
+    }
+
+    @Benchmark
+    public List<OrderDto> fullRowHandWritten() {
+        List<OrderDto> page = new ArrayList<>(rows);
+        for (Object[] row : fullRows) page.add(OrderServiceImpl.convertToDto(map(new Order(), fullProperties, row)));
+        return page;
+    }
+
+    @Benchmark
+    public List<OrderListItemDto> projectionRow() {
+        List<OrderListItemDto> page = new ArrayList<>(rows);
+        for (Object[] row : itemRows) page.add(map(new OrderListItemDto(), itemProperties, row));
+        return page;
+    }
+
+    private <T> T map(T target, String[] properties, Object[] row) {
+        MetaObject meta = configuration.newMetaObject(target);
+        for (int i = 0; i < properties.length; i++) {
+            if (row[i] != null) meta.setValue(properties[i], row[i]);
+        }
+        return target;
+    }
+
+    /**
+     * 列名 -> 属性名（与 MyBatis 自动映射一致：下划线转驼峰、忽略大小写查找）
+     */
+    private String[] properties(Supplier<Object> factory, String[] columns) {
+        MetaObject meta = configuration.newMetaObject(factory.get());
+        String[] props = new String[columns.length];
+        for (int i = 0; i < columns.length; i++) {
+            props[i] = Objects.requireNonNull(meta.findProperty(columns[i], true), columns[i]);
+        }
+        return props;
+    }
+
+    /**
+     * 由样例订单按属性取值构造“结果集行”（值对象预先生成，不计入映射开销）
+     */
+    private List<Object[]> rowsOf(String[] properties) {
+        List<Object[]> result = new ArrayList<>(orders.size());
+        for (Order o : orders) {
+            MetaObject meta = configuration.newMetaObject(o);
+            Object[] row = new Object[properties.length];
+            for (int i = 0; i < properties.length; i++) row[i] = meta.getValue(properties[i]);
+            result.add(row);
+        }
+        return result;
+    }
+
+    private static Order sampleOrder(int i) {
+        Date now = new Date(1_700_000_000_000L + i * 60_000L);
+        Order o = new Order();
+        o.setId(100_000L + i);
+        o.setOrderSn("TB_OPEN_" + (3_000_000_000L + i));
+        o.setDsOrderSn(String.valueOf(3_000_000_000L + i));
+        o.setOrderTitle("夏季新款纯棉短袖T恤男士宽松百搭半袖体恤 " + i);
+        o.setImg("https://img.alicdn.com/imgextra/i" + (i % 4) + "/O1CN01example" + i + ".jpg");
+        o.setUserId(1000L + i % 50);
+        o.setSid("2948771" + i);
+        o.setRelationId(2_948_771L + i);
+        o.setSpecialId(null);
+        o.setAdZoneId(110_000_000L + i);
+        o.setTypeNo(1);
+        o.setUnionPlatform("TB_OPEN");
+        o.setTypeName("淘宝");
+        o.setOrderPrice(129.0 + i);
+        o.setPayPrice(99.0 + i);
+        o.setShareRate(0.2);
+        o.setShareFee(8.56);
+        o.setCreditedFee(0.0);
+        o.setGrossShareFee(12.3);
+        o.setBaseDeductionRate(0.1);
+        o.setBaseDeductionFee(1.23);
+        o.setPlatformProfitRate(0.2);
+        o.setPlatformProfitFee(2.46);
+        o.setUserDiscount(0.7);
+        o.setOrderDiscount(0.7);
+        o.setOrderStatus((byte) (1 + i % 3));
+        o.setStatusContent(i % 5 == 0 ? "本单发生退款，佣金重新计算中" : null);
+        o.setOrderRealStatus(12);
+        o.setRefundStatus(0);
+        o.setOrderLock(0);
+        o.setCreateTime(now);
+        o.setPayTime(now);
+        o.setEarnTime(now);
+        o.setModifyTime(now);
+        o.setUpdateTime(now);
+        o.setPayMonth("20240620");
+        o.setEstimateDate("2024-06-20");
+        o.setPunishReason(null);
+        o.setFingerprint("5d41402abc4b2a76b9719d911017c592");
+        return o;
+    }
+}
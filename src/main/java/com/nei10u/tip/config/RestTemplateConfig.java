@@ -1,26 +1,25 @@
 package com.nei10u.tip.config;
 
+import com.nei10u.tip.http.UpstreamHttpClients;
+import com.nei10u.tip.http.UpstreamHttpInterceptor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.http.client.ClientHttpRequestFactory;
-import org.springframework.http.client.SimpleClientHttpRequestFactory;
 import org.springframework.web.client.RestTemplate;
 
 /**
  * RestTemplate配置类
+ * <p>
+ * 各上游（DTK / ZTK / HJK / VEAPI / 淘宝开放平台）共用此 RestTemplate：
+ * 按域名路由到各自的连接池化客户端，超时、并发上限、HTTP/2、gzip 见 app.http.*
  */
 @Configuration
 public class RestTemplateConfig {
 
     @Bean
-    public RestTemplate restTemplate() {
-        return new RestTemplate(clientHttpRequestFactory());
-    }
-
-    private ClientHttpRequestFactory clientHttpRequestFactory() {
-        SimpleClientHttpRequestFactory factory = new SimpleClientHttpRequestFactory();
-        factory.setConnectTimeout(10000); // 连接超时10秒
-        factory.setReadTimeout(30000); // 读取超时30秒
-        return factory;
+    public RestTemplate restTemplate(UpstreamHttpClients upstreamHttpClients,
+                                     UpstreamHttpInterceptor upstreamHttpInterceptor) {
+        RestTemplate restTemplate = new RestTemplate(upstreamHttpClients);
+        restTemplate.getInterceptors().add(upstreamHttpInterceptor);
+        return restTemplate;
     }
 }
@@ -2,9 +2,11 @@ package com.nei10u.tip.controller;
 
 import com.baomidou.mybatisplus.core.metadata.IPage;
 import com.nei10u.tip.dto.OrderDto;
+import com.nei10u.tip.dto.OrderListItemDto;
 import com.nei10u.tip.ordersync.tb.TbOrderSyncService;
 import com.nei10u.tip.ordersync.tb.TbSyncType;
 import com.nei10u.tip.service.OrderService;
+import com.nei10u.tip.vo.CursorPageVO;
 import com.nei10u.tip.vo.ResponseVO;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -32,23 +34,44 @@ public class OrderController {
 
     @Operation(summary = "获取订单列表")
     @GetMapping("/list")
-    public ResponseVO<IPage<OrderDto>> getOrders(
+    public ResponseVO<IPage<OrderListItemDto>> getOrders(
             @RequestParam(defaultValue = "1") int page,
             @RequestParam String userId) {
-        IPage<OrderDto> orders = orderService.getOrders(page, userId);
+        IPage<OrderListItemDto> orders = orderService.getOrders(page, userId);
         return ResponseVO.success(orders);
     }
 
     @Operation(summary = "根据状态获取订单")
     @GetMapping("/list/status")
-    public ResponseVO<IPage<OrderDto>> getOrdersByStatus(
+    public ResponseVO<IPage<OrderListItemDto>> getOrdersByStatus(
             @RequestParam(defaultValue = "1") int page,
             @RequestParam String userId,
             @RequestParam List<Byte> statusList) {
-        IPage<OrderDto> orders = orderService.getOrdersByStatus(page, userId, statusList);
+        IPage<OrderListItemDto> orders = orderService.getOrdersByStatus(page, userId, statusList);
         return ResponseVO.success(orders);
     }
 
+    @Operation(summary = "获取订单列表（游标分页，适合深翻页）")
+    @GetMapping("/list/cursor")
+    public ResponseVO<CursorPageVO<OrderListItemDto>> getOrdersByCursor(
+            @RequestParam String userId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(defaultValue = "false") boolean withTotal) {
+        return ResponseVO.success(orderService.getOrdersByCursor(userId, null, cursor, size, withTotal));
+    }
+
+    @Operation(summary = "根据状态获取订单（游标分页，适合深翻页）")
+    @GetMapping("/list/status/cursor")
+    public ResponseVO<CursorPageVO<OrderListItemDto>> getOrdersByStatusCursor(
+            @RequestParam String userId,
+            @RequestParam List<Byte> statusList,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(defaultValue = "false") boolean withTotal) {
+        return ResponseVO.success(orderService.getOrdersByCursor(userId, statusList, cursor, size, withTotal));
+    }
+
     @Operation(summary = "根据订单号查询")
     @GetMapping("/{orderSn}")
     public ResponseVO<OrderDto> getOrderByOrderSn(@PathVariable String orderSn) {
@@ -0,0 +1,58 @@
+package com.nei10u.tip.controller;
+
+import com.nei10u.tip.settlement.SettlementDryRunService;
+import com.nei10u.tip.vo.ResponseVO;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * 结算运维接口
+ * <p>
+ * 预演（dry-run）：按正式结算口径只读计算，逐单与每用户小计写入服务端 gzip CSV，不改动任何数据。
+ */
+@Tag(name = "结算运维接口")
+@RestController
+@RequestMapping("/api/admin/settlement")
+@RequiredArgsConstructor
+public class SettlementAdminController {
+
+    private final SettlementDryRunService settlementDryRunService;
+
+    @Value("${app.settlement.admin-key:}")
+    private String adminKey;
+
+    @Operation(summary = "启动月度结算预演（只读，输出差异 CSV）")
+    @PostMapping("/dry-run")
+    public ResponseVO<SettlementDryRunService.DryRunProgress> startDryRun(
+            @RequestHeader(value = "X-Admin-Key", required = false) String key) {
+        if (!authorized(key)) {
+            return ResponseVO.error(403, "forbidden");
+        }
+        return ResponseVO.success(settlementDryRunService.start());
+    }
+
+    @Operation(summary = "查询月度结算预演进度")
+    @GetMapping("/dry-run")
+    public ResponseVO<SettlementDryRunService.DryRunProgress> dryRunProgress(
+            @RequestHeader(value = "X-Admin-Key", required = false) String key) {
+        if (!authorized(key)) {
+            return ResponseVO.error(403, "forbidden");
+        }
+        return ResponseVO.success(settlementDryRunService.progress());
+    }
+
+    private boolean authorized(String key) {
+        // 允许通过配置关闭鉴权（admin-key 为空则不校验）
+        final String requiredKey = adminKey == null ? "" : adminKey.trim();
+        if (requiredKey.isEmpty()) return true;
+        final String actual = key == null ? "" : key.trim();
+        return requiredKey.equals(actual);
+    }
+}
@@ -0,0 +1,34 @@
+package com.nei10u.tip.dto;
+
+import lombok.Data;
+
+import java.util.Date;
+
+/**
+ * 订单列表项DTO（列表页展示字段的精简投影，由 SQL 直接映射，不经 Order 实体）
+ */
+@Data
+public class OrderListItemDto {
+
+    private Long id;
+    private String orderSn;
+    private String orderTitle;
+    private String img;
+
+    private Integer typeNo;
+    private String typeName;
+    private String unionPlatform;
+
+    private Double payPrice;
+    private Double shareFee;
+
+    private Byte orderStatus;
+    private String statusContent;
+
+    private Date createTime;
+    private Date payTime;
+    private Date earnTime;
+
+    private String payMonth;
+    private String estimateDate;
+}
@@ -0,0 +1,116 @@
+package com.nei10u.tip.goods.cache;
+
+import com.alibaba.fastjson2.JSONObject;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * 商品列表缓存键访问统计（供预热使用）。
+ * <p>
+ * - 每次 {@link GoodsListCache#get} 记一次访问，同时保存该键的回源方法（预热时直接复用）
+ * - 热度为指数衰减计数：每轮预热 score = score × decay + 本轮访问数，反映近期流量
+ * - 跟踪的键数有上限，长时间无访问的键自动淘汰
+ * - pin 的键（如首页底部列表）不参与淘汰，始终排在最前
+ */
+@Component
+public class GoodsCacheAccessStats {
+
+    /**
+     * 单个缓存键的热度。
+     */
+    public static final class HotKey {
+        private final String family;
+        private final String key;
+        private final boolean pinned;
+        private final LongAdder hits = new LongAdder();
+        private volatile Supplier<JSONObject> loader;
+        private volatile double score;
+
+        HotKey(String family, String key, Supplier<JSONObject> loader, boolean pinned) {
+            this.family = family;
+            this.key = key;
+            this.loader = loader;
+            this.pinned = pinned;
+        }
+
+        public String family() {
+            return family;
+        }
+
+        public String key() {
+            return key;
+        }
+
+        public Supplier<JSONObject> loader() {
+            return loader;
+        }
+
+        public boolean pinned() {
+            return pinned;
+        }
+
+        public double score() {
+            return score;
+        }
+    }
+
+    private final GoodsListCacheProperties props;
+    private final Cache<String, HotKey> tracked;
+    private final Map<String, HotKey> pinned = new ConcurrentHashMap<>();
+
+    public GoodsCacheAccessStats(GoodsListCacheProperties props) {
+        this.props = props;
+        GoodsListCacheProperties.Warm warm = props.getWarm();
+        this.tracked = Caffeine.newBuilder()
+                .maximumSize(Math.max(1, warm.getTrackMaxKeys()))
+                .expireAfterAccess(Duration.ofMinutes(Math.max(1, warm.getTrackIdleMinutes())))
+                .build();
+    }
+
+    public void record(String family, String key, Supplier<JSONObject> loader) {
+        if (!props.getWarm().isEnabled()) return;
+        String id = family + ":" + key;
+        HotKey hk = pinned.get(id);
+        if (hk == null) {
+            hk = tracked.get(id, k -> new HotKey(family, key, loader, false));
+        }
+        hk.loader = loader;
+        hk.hits.increment();
+    }
+
+    /**
+     * 固定预热的键（不依赖访问统计，如首页底部列表）。
+     */
+    public void pin(String family, String key, Supplier<JSONObject> loader) {
+        String id = family + ":" + key;
+        pinned.put(id, new HotKey(family, key, loader, true));
+        tracked.invalidate(id);
+    }
+
+    /**
+     * 结束一个统计周期（衰减并累加本轮访问）并返回最热的 n 个键：pin 的键在前，其余按热度降序。
+     */
+    public synchronized List<HotKey> rollAndTop(int n) {
+        double decay = Math.max(0d, Math.min(1d, props.getWarm().getDecay()));
+        List<HotKey> candidates = new ArrayList<>();
+        for (HotKey hk : tracked.asMap().values()) {
+            hk.score = hk.score * decay + hk.hits.sumThenReset();
+            if (hk.score >= Math.max(0d, props.getWarm().getMinScore())) candidates.add(hk);
+        }
+        candidates.sort(Comparator.comparingDouble(HotKey::score).reversed());
+
+        List<HotKey> top = new ArrayList<>(pinned.values());
+        for (HotKey hk : candidates) {
+            if (top.size() >= Math.max(0, n)) break;
+            top.add(hk);
+        }
+        return top;
+    }
+}
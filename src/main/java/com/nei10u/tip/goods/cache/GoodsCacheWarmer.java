@@ -0,0 +1,148 @@
+package com.nei10u.tip.goods.cache;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 商品列表热点预热：取 {@link GoodsCacheAccessStats} 中最热的 N 个键，剩余新鲜期不足 refresh-ahead 时主动回源，
+ * 让热门页面在过期前就被刷新，用户请求不落到 stale/miss。
+ * <p>
+ * - 每轮最多回源 budget-per-run 次，超出的键留到下一轮
+ * - 按上游（family.upstream）限速，避免预热挤占线上请求的上游配额
+ * - 新鲜期先查本地再查 Redis：其他实例刚刷新过的键不会重复回源
+ * <p>
+ * 预热在专用单线程（goods-cache-warm）上执行：限速等待会 sleep，不能占用 Spring 共享调度池；
+ * GoodsCacheWarmScheduler 只负责 {@link #trigger()}，上一轮未结束时本次跳过。
+ * 指标：goods.cache.warm{family,result=refreshed|empty|failed|skipped_budget}。
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class GoodsCacheWarmer {
+
+    private final GoodsListCacheProperties props;
+    private final GoodsListCache goodsListCache;
+    private final GoodsCacheAccessStats accessStats;
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * 各上游下一次允许回源的时间（System.nanoTime）
+     */
+    private final Map<String, Long> nextAllowedNanos = new HashMap<>();
+
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "goods-cache-warm");
+        t.setDaemon(true);
+        return t;
+    });
+
+    /**
+     * 在预热线程上异步执行一轮；上一轮仍在执行时直接返回 false。
+     */
+    public boolean trigger() {
+        if (!running.compareAndSet(false, true)) return false;
+        try {
+            executor.execute(() -> {
+                try {
+                    warm();
+                } catch (Exception e) {
+                    log.error("商品列表预热任务异常", e);
+                } finally {
+                    running.set(false);
+                }
+            });
+            return true;
+        } catch (RejectedExecutionException e) {
+            running.set(false);
+            return false;
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * 执行一轮预热（同步；调度入口走 {@link #trigger()}）。
+     *
+     * @return 本轮实际回源的次数
+     */
+    public int warm() {
+        GoodsListCacheProperties.Warm warm = props.getWarm();
+        if (!props.isEnabled() || !warm.isEnabled()) return 0;
+
+        List<GoodsCacheAccessStats.HotKey> top = accessStats.rollAndTop(warm.getTopN());
+        long aheadMs = TimeUnit.SECONDS.toMillis(Math.max(0, warm.getRefreshAheadSeconds()));
+        int budget = Math.max(0, warm.getBudgetPerRun());
+        int used = 0;
+        int due = 0;
+
+        for (GoodsCacheAccessStats.HotKey hk : top) {
+            Long remainingMs = goodsListCache.freshRemainingMs(hk.family(), hk.key());
+            if (remainingMs != null && remainingMs > aheadMs) continue;
+            due++;
+            if (used >= budget) {
+                count(hk.family(), "skipped_budget");
+                continue;
+            }
+
+            if (!pace(goodsListCache.upstreamOf(hk.family()), warm)) break;
+            used++;
+            try {
+                boolean refreshed = goodsListCache.refresh(hk.family(), hk.key(), hk.loader());
+                count(hk.family(), refreshed ? "refreshed" : "empty");
+            } catch (Exception e) {
+                count(hk.family(), "failed");
+                log.warn("商品列表预热失败: family={}, key={}, err={}", hk.family(), hk.key(), e.getMessage());
+            }
+        }
+
+        if (due > 0) {
+            log.debug("商品列表预热: hot={}, due={}, refreshed={}", top.size(), due, used);
+        }
+        return used;
+    }
+
+    /**
+     * 按上游 QPS 排队：未到该上游的下一个时间片则等待（仅在预热线程上 sleep）。
+     *
+     * @return false 表示等待被中断，本轮终止
+     */
+    private boolean pace(String upstream, GoodsListCacheProperties.Warm warm) {
+        String name = upstream == null ? "" : upstream;
+        double qps = warm.getUpstreamQps().getOrDefault(name, warm.getDefaultQps());
+        if (qps <= 0) return true;
+
+        long intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / qps);
+        long now = System.nanoTime();
+        long at = Math.max(now, nextAllowedNanos.getOrDefault(name, now));
+        nextAllowedNanos.put(name, at + intervalNanos);
+        if (at > now) {
+            try {
+                TimeUnit.NANOSECONDS.sleep(at - now);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void count(String family, String result) {
+        meterRegistry.counter("goods.cache.warm", "family", family, "result", result).increment();
+    }
+}
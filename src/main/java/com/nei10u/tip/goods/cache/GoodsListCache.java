@@ -0,0 +1,307 @@
+package com.nei10u.tip.goods.cache;
+
+import com.alibaba.fastjson2.JSON;
+import com.alibaba.fastjson2.JSONArray;
+import com.alibaba.fastjson2.JSONObject;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.nei10u.tip.http.SingleFlight;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * 商品列表两级缓存：本地（Caffeine，有界）+ Redis（多实例共享），按接口族（family）配置 TTL。
+ * <p>
+ * 读取：本地 -> Redis -> 回源（同键并发回源合并为一次）。按数据年龄：
+ * - age &lt; ttl：直接返回
+ * - ttl &lt;= age &lt; ttl + stale：返回旧值并在后台刷新（stale-while-revalidate）
+ * - 超过 ttl + stale：条目已过期，同步回源
+ * <p>
+ * 空列表（上游失败、限流、无数据）不写缓存；后台刷新得到空列表时保留旧值。
+ * 返回的是缓存中的共享对象，调用方只读，不要修改。
+ * Redis 不可用时退化为本地缓存。
+ * 每次读取同时记入 {@link GoodsCacheAccessStats}，由 {@link GoodsCacheWarmer} 在过期前刷新热点键。
+ * 指标：goods.cache{family,result=local_hit|redis_hit|stale|miss|empty}、goods.cache.refresh{family,result}。
+ */
+@Slf4j
+@Component
+public class GoodsListCache {
+
+    private static final String KEY_PREFIX = "goods:list:";
+
+    /**
+     * 缓存条目。
+     *
+     * @param value     列表结果
+     * @param fetchedAt 回源时间（毫秒）
+     * @param ttlMs     新鲜期
+     * @param staleMs   过期后可返回旧值的时长
+     */
+    private record Entry(JSONObject value, long fetchedAt, long ttlMs, long staleMs) {
+        long age(long now) {
+            return now - fetchedAt;
+        }
+    }
+
+    private final GoodsListCacheProperties props;
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final MeterRegistry meterRegistry;
+    private final GoodsCacheAccessStats accessStats;
+    private final Cache<String, Entry> local;
+    private final SingleFlight<Entry> loads = new SingleFlight<>();
+    private final Set<String> refreshing = ConcurrentHashMap.newKeySet();
+    private final ThreadPoolExecutor refreshExecutor;
+
+    public GoodsListCache(GoodsListCacheProperties props,
+                          RedisTemplate<String, Object> redisTemplate,
+                          MeterRegistry meterRegistry,
+                          GoodsCacheAccessStats accessStats) {
+        this.props = props;
+        this.redisTemplate = redisTemplate;
+        this.meterRegistry = meterRegistry;
+        this.accessStats = accessStats;
+        this.local = Caffeine.newBuilder()
+                .maximumSize(Math.max(1, props.getLocalMaxSize()))
+                .expireAfter(new Expiry<String, Entry>() {
+                    @Override
+                    public long expireAfterCreate(String key, Entry e, long currentTime) {
+                        long remainingMs = e.ttlMs() + e.staleMs() - e.age(System.currentTimeMillis());
+                        return TimeUnit.MILLISECONDS.toNanos(Math.max(1, remainingMs));
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, Entry e, long currentTime, long currentDuration) {
+                        return expireAfterCreate(key, e, currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, Entry e, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .build();
+
+        int threads = Math.max(1, props.getRefreshThreads());
+        AtomicInteger seq = new AtomicInteger();
+        this.refreshExecutor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, props.getRefreshQueueCapacity())), r -> {
+            Thread t = new Thread(r, "goods-cache-refresh-" + seq.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        }, new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        refreshExecutor.shutdownNow();
+    }
+
+    /**
+     * 缓存键：各部分以 ':' 连接（null 记为空串）。
+     */
+    public static String key(Object... parts) {
+        return Stream.of(parts).map(p -> p == null ? "" : String.valueOf(p)).collect(Collectors.joining(":"));
+    }
+
+    /**
+     * 读取列表；未命中时调用 loader 回源。
+     *
+     * @param family 接口族（决定 TTL）
+     * @param key    族内键，见 {@link #key}
+     */
+    public JSONObject get(String family, String key, Supplier<JSONObject> loader) {
+        GoodsListCacheProperties.Family cfg = family(family);
+        if (!props.isEnabled() || !Boolean.TRUE.equals(cfg.getEnabled())) return loader.get();
+
+        accessStats.record(family, key, loader);
+        String cacheKey = family + ":" + key;
+        long now = System.currentTimeMillis();
+
+        String hit = "local_hit";
+        Entry e = local.getIfPresent(cacheKey);
+        if (e == null) {
+            e = readRedis(cacheKey, cfg);
+            if (e != null) {
+                local.put(cacheKey, e);
+                hit = "redis_hit";
+            }
+        }
+        if (e != null && e.age(now) < e.ttlMs() + e.staleMs()) {
+            if (e.age(now) >= e.ttlMs()) {
+                count(family, "stale");
+                refreshAsync(family, cacheKey, cfg, loader);
+            } else {
+                count(family, hit);
+            }
+            return e.value();
+        }
+
+        count(family, "miss");
+        Entry fresh = loads.run(cacheKey, () -> load(family, cacheKey, cfg, loader)).value();
+        return fresh.value();
+    }
+
+    /**
+     * 立即回源并写入缓存（用于预热）；结果为空列表时保留旧值。
+     *
+     * @return 是否写入了新值
+     */
+    public boolean refresh(String family, String key, Supplier<JSONObject> loader) {
+        GoodsListCacheProperties.Family cfg = family(family);
+        if (!props.isEnabled() || !Boolean.TRUE.equals(cfg.getEnabled())) return false;
+
+        String cacheKey = family + ":" + key;
+        Entry fresh = loads.run(cacheKey, () -> load(family, cacheKey, cfg, loader)).value();
+        return fresh.fetchedAt() > 0;
+    }
+
+    /**
+     * 剩余新鲜期（毫秒）：本地未命中时查 Redis（其他实例已刷新则直接复用）。
+     *
+     * @return 剩余毫秒数，可能为负（已进入 stale 期）；无缓存时为 null
+     */
+    public Long freshRemainingMs(String family, String key) {
+        GoodsListCacheProperties.Family cfg = family(family);
+        String cacheKey = family + ":" + key;
+        Entry e = local.getIfPresent(cacheKey);
+        if (e == null) {
+            e = readRedis(cacheKey, cfg);
+            if (e == null) return null;
+            local.put(cacheKey, e);
+        }
+        return e.ttlMs() - e.age(System.currentTimeMillis());
+    }
+
+    /**
+     * 接口族的回源上游（未配置时为 null）。
+     */
+    public String upstreamOf(String family) {
+        return family(family).getUpstream();
+    }
+
+    /**
+     * 回源；非空才写两级缓存。空结果以 fetchedAt=0 的条目返回（不写缓存）。
+     */
+    private Entry load(String family, String cacheKey, GoodsListCacheProperties.Family cfg,
+                       Supplier<JSONObject> loader) {
+        JSONObject v = loader.get();
+        if (isEmptyList(v)) {
+            count(family, "empty");
+            return new Entry(v == null ? new JSONObject() : v, 0, 0, 0);
+        }
+        Entry e = new Entry(v, System.currentTimeMillis(), ttlMs(cfg), staleMs(cfg));
+        local.put(cacheKey, e);
+        writeRedis(cacheKey, e);
+        return e;
+    }
+
+    private void refreshAsync(String family, String cacheKey, GoodsListCacheProperties.Family cfg,
+                              Supplier<JSONObject> loader) {
+        if (!refreshing.add(cacheKey)) return;
+        try {
+            refreshExecutor.execute(() -> {
+                try {
+                    Entry e = loads.run(cacheKey, () -> load(family, cacheKey, cfg, loader)).value();
+                    refreshCount(family, e.fetchedAt() > 0 ? "ok" : "empty");
+                } catch (Exception ex) {
+                    refreshCount(family, "error");
+                    log.warn("Goods list cache refresh failed: key={}", cacheKey, ex);
+                } finally {
+                    refreshing.remove(cacheKey);
+                }
+            });
+        } catch (RejectedExecutionException ex) {
+            refreshing.remove(cacheKey);
+            refreshCount(family, "rejected");
+        }
+    }
+
+    private Entry readRedis(String cacheKey, GoodsListCacheProperties.Family cfg) {
+        try {
+            Object cached = redisTemplate.opsForValue().get(KEY_PREFIX + cacheKey);
+            if (!(cached instanceof String s) || !StringUtils.hasText(s)) return null;
+            JSONObject envelope = JSON.parseObject(s);
+            JSONObject value = envelope.getJSONObject("v");
+            long fetchedAt = envelope.getLongValue("t");
+            if (value == null || fetchedAt <= 0) return null;
+            return new Entry(value, fetchedAt, ttlMs(cfg), staleMs(cfg));
+        } catch (Exception ex) {
+            log.debug("Read goods list cache failed: key={}", cacheKey, ex);
+            return null;
+        }
+    }
+
+    private void writeRedis(String cacheKey, Entry e) {
+        try {
+            String envelope = new JSONObject().fluentPut("t", e.fetchedAt()).fluentPut("v", e.value()).toJSONString();
+            redisTemplate.opsForValue().set(KEY_PREFIX + cacheKey, envelope,
+                    Math.max(1, e.ttlMs() + e.staleMs()), TimeUnit.MILLISECONDS);
+        } catch (Exception ex) {
+            log.debug("Write goods list cache failed: key={}", cacheKey, ex);
+        }
+    }
+
+    private GoodsListCacheProperties.Family family(String family) {
+        GoodsListCacheProperties.Family d = props.getDefaults();
+        GoodsListCacheProperties.FamilyOverride o = props.getFamilies().get(family);
+        if (o == null) return d;
+        GoodsListCacheProperties.Family merged = new GoodsListCacheProperties.Family();
+        merged.setEnabled(Objects.requireNonNullElse(o.getEnabled(), d.getEnabled()));
+        merged.setTtlSeconds(Objects.requireNonNullElse(o.getTtlSeconds(), d.getTtlSeconds()));
+        merged.setStaleSeconds(Objects.requireNonNullElse(o.getStaleSeconds(), d.getStaleSeconds()));
+        merged.setUpstream(o.getUpstream() != null ? o.getUpstream() : d.getUpstream());
+        return merged;
+    }
+
+    private static long ttlMs(GoodsListCacheProperties.Family cfg) {
+        return TimeUnit.SECONDS.toMillis(Math.max(1, cfg.getTtlSeconds() == null ? 120 : cfg.getTtlSeconds()));
+    }
+
+    private static long staleMs(GoodsListCacheProperties.Family cfg) {
+        return TimeUnit.SECONDS.toMillis(Math.max(0, cfg.getStaleSeconds() == null ? 0 : cfg.getStaleSeconds()));
+    }
+
+    private void count(String family, String result) {
+        meterRegistry.counter("goods.cache", "family", family, "result", result).increment();
+    }
+
+    private void refreshCount(String family, String result) {
+        meterRegistry.counter("goods.cache.refresh", "family", family, "result", result).increment();
+    }
+
+    /**
+     * 是否为空列表（不允许写缓存）。兼容的结构：
+     * - 上游原样：{data:{list:[...]}} / {data:[...]} / {data:{...非空对象}}
+     * - 归一化：{list:[...]}
+     * 无 data / list 字段（如错误响应）也视为空。
+     */
+    static boolean isEmptyList(JSONObject raw) {
+        if (raw == null || raw.isEmpty()) return true;
+        try {
+            Object data = raw.get("data");
+            if (data instanceof JSONArray arr) return arr.isEmpty();
+            if (data instanceof JSONObject obj) {
+                JSONArray list = obj.getJSONArray("list");
+                return list != null ? list.isEmpty() : obj.isEmpty();
+            }
+            JSONArray list = raw.getJSONArray("list");
+            if (list != null) return list.isEmpty();
+        } catch (Exception ignore) {
+            // ignore
+        }
+        return true;
+    }
+}
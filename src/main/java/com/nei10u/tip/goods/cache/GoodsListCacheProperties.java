@@ -0,0 +1,130 @@
+package com.nei10u.tip.goods.cache;
+
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 商品列表缓存参数（application.yml: app.goods.cache.*）。
+ * <p>
+ * family 为接口族（tb-trend / jd-selected / pdd-explosive ...），未单独配置的项取 defaults。
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.goods.cache")
+public class GoodsListCacheProperties {
+
+    private boolean enabled = true;
+
+    /**
+     * 本地缓存条数上限（Caffeine，W-TinyLFU 淘汰）
+     */
+    private long localMaxSize = 2000;
+
+    /**
+     * 后台刷新（stale-while-revalidate）线程数
+     */
+    private int refreshThreads = 2;
+
+    /**
+     * 后台刷新排队上限；超出时本次不刷新，继续返回旧值
+     */
+    private int refreshQueueCapacity = 200;
+
+    private Family defaults = new Family();
+
+    private Map<String, FamilyOverride> families = new LinkedHashMap<>();
+
+    private Warm warm = new Warm();
+
+    @Data
+    public static class Family {
+
+        private Boolean enabled = true;
+
+        /**
+         * 新鲜期（秒）：期内直接命中
+         */
+        private Integer ttlSeconds = 120;
+
+        /**
+         * 过期后仍可返回旧值的时长（秒）：期内命中旧值并触发后台刷新；超过则同步回源
+         */
+        private Integer staleSeconds = 300;
+
+        /**
+         * 回源上游（dtk / ztk / hjk），预热时按上游限速
+         */
+        private String upstream;
+    }
+
+    /**
+     * 热点预热（GoodsCacheWarmer）：按访问统计挑出最热的键，在过期前主动刷新。
+     */
+    @Data
+    public static class Warm {
+
+        private boolean enabled = true;
+
+        /**
+         * 预热周期（毫秒）
+         */
+        private long intervalMs = 15000;
+
+        /**
+         * 每轮预热的热点键数（N）
+         */
+        private int topN = 50;
+
+        /**
+         * 每轮最多实际回源次数（预算）
+         */
+        private int budgetPerRun = 20;
+
+        /**
+         * 剩余新鲜期不足该秒数时刷新
+         */
+        private int refreshAheadSeconds = 30;
+
+        /**
+         * 各上游预热回源 QPS；未配置的上游取 default-qps
+         */
+        private Map<String, Double> upstreamQps = new LinkedHashMap<>();
+
+        private double defaultQps = 2;
+
+        /**
+         * 跟踪的键数上限 / 无访问多久后不再跟踪（分钟）
+         */
+        private long trackMaxKeys = 10000;
+
+        private long trackIdleMinutes = 30;
+
+        /**
+         * 每轮热度衰减系数（0~1），越小越偏向最近流量
+         */
+        private double decay = 0.5;
+
+        /**
+         * 热度低于该值的键不预热
+         */
+        private double minScore = 1;
+    }
+
+    @Data
+    @EqualsAndHashCode(callSuper = true)
+    public static class FamilyOverride extends Family {
+
+        public FamilyOverride() {
+            // 置空：未配置的项回落到 defaults
+            setEnabled(null);
+            setTtlSeconds(null);
+            setStaleSeconds(null);
+            setUpstream(null);
+        }
+    }
+}
@@ -3,6 +3,7 @@ package com.nei10u.tip.goods.processor;
 import com.alibaba.fastjson2.JSON;
 import com.alibaba.fastjson2.JSONArray;
 import com.alibaba.fastjson2.JSONObject;
+import com.nei10u.tip.goods.cache.GoodsListCache;
 import com.nei10u.tip.goods.util.GoodsFieldUtils;
 import com.nei10u.tip.service.ZtkApiService;
 import lombok.RequiredArgsConstructor;
@@ -26,11 +27,17 @@ import java.util.Locale;
 public class DyGoodsProcessor {
 
     private final ZtkApiService ztkApiService;
+    private final GoodsListCache goodsListCache;
 
     /**
      * 抖音商品搜索（默认仅返回可分销商品）。
      */
     public JSONObject search(String title, int pageId, int pageSize) {
+        return goodsListCache.get("dy-search", GoodsListCache.key(title, pageId, pageSize),
+                () -> fetchSearch(title, pageId, pageSize));
+    }
+
+    private JSONObject fetchSearch(String title, int pageId, int pageSize) {
         int page = Math.max(pageId, 1);
         int size = pageSize <= 0 ? 20 : Math.min(pageSize, 20);
 
@@ -125,6 +132,11 @@ public class DyGoodsProcessor {
      * 作为“抖音购物返利页”CMS 的视频列表数据源：按统一 goods 字段输出，供 App 复用现有组件渲染。
      */
     public JSONObject videoList(Integer cid, String saleNumStart, String sort, int pageId, int pageSize) {
+        return goodsListCache.get("dy-videos", GoodsListCache.key(cid, saleNumStart, sort, pageId, pageSize),
+                () -> fetchVideoList(cid, saleNumStart, sort, pageId, pageSize));
+    }
+
+    private JSONObject fetchVideoList(Integer cid, String saleNumStart, String sort, int pageId, int pageSize) {
         int page = Math.max(pageId, 1);
         int size = pageSize <= 0 ? 20 : Math.min(pageSize, 50);
 
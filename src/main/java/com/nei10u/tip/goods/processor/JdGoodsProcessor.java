@@ -3,6 +3,7 @@ package com.nei10u.tip.goods.processor;
 import com.alibaba.fastjson2.JSON;
 import com.alibaba.fastjson2.JSONArray;
 import com.alibaba.fastjson2.JSONObject;
+import com.nei10u.tip.goods.cache.GoodsListCache;
 import com.nei10u.tip.goods.util.GoodsFieldUtils;
 import com.nei10u.tip.service.GoodsCacheService;
 import com.nei10u.tip.service.ZtkApiService;
@@ -18,7 +19,6 @@ import java.util.Arrays;
 import java.util.List;
 import java.util.stream.Collectors;
 
-import static com.nei10u.tip.service.impl.GoodsCacheServiceImpl.HOME_LIST_PAGE_ID;
 import static com.nei10u.tip.service.impl.GoodsCacheServiceImpl.HOME_LIST_PAGE_SIZE;
 
 /**
@@ -31,21 +31,28 @@ public class JdGoodsProcessor {
 
     private final ZtkApiService ztkApiService;
     private final GoodsCacheService goodsCacheService;
+    private final GoodsListCache goodsListCache;
 
     public JSONObject getJdCurrentTrend(int cid, int pageId, int pageSize) {
-        // 首页最下方：只缓存第一页（cid=0 & pageSize=20）
-        if (HOME_LIST_PAGE_ID == pageId && HOME_LIST_PAGE_SIZE == pageSize && cid == 0) {
-            return goodsCacheService.getOrLoadJdCurrentFirstPage();
-        }
-        return goodsCacheService.fetchJdCurrentTrend(cid, pageId, pageSize);
+        return goodsCacheService.getJdCurrentTrend(cid, pageId, pageSize);
     }
 
     public JSONObject getJdSelectedGoodsList(String pinPaiName, String pinPai, String cid, String sort, int pageId, int pageSize) {
+        return goodsListCache.get("jd-selected", GoodsListCache.key(pinPaiName, pinPai, cid, sort, pageId, pageSize),
+                () -> fetchJdSelectedGoodsList(pinPaiName, pinPai, cid, sort, pageId, pageSize));
+    }
+
+    private JSONObject fetchJdSelectedGoodsList(String pinPaiName, String pinPai, String cid, String sort, int pageId, int pageSize) {
         String response = ztkApiService.getJdGoodsList(pinPaiName, pinPai, cid, sort, Strings.EMPTY, Strings.EMPTY, pageId, pageSize);
         return StringUtils.hasText(response) ? normalizeZtkJdSelectedLikeList(JSON.parseObject(response), pageId, pageSize) : new JSONObject();
     }
 
     public JSONObject getJdSelfOperatedGoodsList(String pinPaiName, String pinPai, String cid, String sort, String tj, int pageId, int pageSize) {
+        return goodsListCache.get("jd-self-operated", GoodsListCache.key(pinPaiName, pinPai, cid, sort, tj, pageId, pageSize),
+                () -> fetchJdSelfOperatedGoodsList(pinPaiName, pinPai, cid, sort, tj, pageId, pageSize));
+    }
+
+    private JSONObject fetchJdSelfOperatedGoodsList(String pinPaiName, String pinPai, String cid, String sort, String tj, int pageId, int pageSize) {
         String response = ztkApiService.getJdGoodsList(pinPaiName, pinPai, cid, sort, Strings.EMPTY, tj, pageId, pageSize);
         return StringUtils.hasText(response) ? normalizeZtkJdSelectedLikeList(JSON.parseObject(response), pageId, pageSize) : new JSONObject();
     }
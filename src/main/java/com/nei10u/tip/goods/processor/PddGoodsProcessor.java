@@ -3,6 +3,7 @@ package com.nei10u.tip.goods.processor;
 import com.alibaba.fastjson2.JSON;
 import com.alibaba.fastjson2.JSONArray;
 import com.alibaba.fastjson2.JSONObject;
+import com.nei10u.tip.goods.cache.GoodsListCache;
 import com.nei10u.tip.goods.util.GoodsFieldUtils;
 import com.nei10u.tip.service.HjkApiService;
 import lombok.RequiredArgsConstructor;
@@ -24,11 +25,17 @@ import java.util.Map;
 public class PddGoodsProcessor {
 
     private final HjkApiService hjkApiService;
+    private final GoodsListCache goodsListCache;
 
     /**
      * 拼多多商品列表
      */
     public JSONObject getPddGoodsList(String keyword, int pageId, int pageSize) {
+        return goodsListCache.get("pdd-list", GoodsListCache.key(keyword, pageId, pageSize),
+                () -> fetchPddGoodsList(keyword, pageId, pageSize));
+    }
+
+    private JSONObject fetchPddGoodsList(String keyword, int pageId, int pageSize) {
         int page = Math.max(pageId, 1);
         int size = pageSize <= 0 ? 20 : pageSize;
         String resp = hjkApiService.pddGoodsList(keyword, page, size);
@@ -39,6 +46,11 @@ public class PddGoodsProcessor {
      * 今日爆款（支持分页：offset/limit）
      */
     public JSONObject getPddExplosiveGoodList(int pageId, int pageSize) {
+        return goodsListCache.get("pdd-explosive", GoodsListCache.key(pageId, pageSize),
+                () -> fetchPddExplosiveGoodList(pageId, pageSize));
+    }
+
+    private JSONObject fetchPddExplosiveGoodList(int pageId, int pageSize) {
         int page = Math.max(pageId, 1);
         int size = pageSize <= 0 ? 20 : pageSize;
 
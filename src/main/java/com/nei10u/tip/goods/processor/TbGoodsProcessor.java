@@ -5,6 +5,7 @@ import com.alibaba.fastjson2.JSONObject;
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.nei10u.tip.exception.BusinessException;
+import com.nei10u.tip.goods.cache.GoodsListCache;
 import com.nei10u.tip.mapper.GoodsMapper;
 import com.nei10u.tip.mapper.PromotionInfoMapper;
 import com.nei10u.tip.model.DtkGoods;
@@ -25,10 +26,6 @@ import java.time.format.DateTimeFormatter;
 import java.util.List;
 import java.util.UUID;
 
-import static com.nei10u.tip.service.impl.GoodsCacheServiceImpl.HOME_LIST_PAGE_ID;
-import static com.nei10u.tip.service.impl.GoodsCacheServiceImpl.HOME_LIST_PAGE_SIZE;
-import static com.nei10u.tip.service.impl.GoodsCacheServiceImpl.HOME_TB_TREND_TYPE;
-
 /**
  * 淘宝（TB）平台商品处理器：负责接入 DTK & 本地库存商品 & TB 转链。
  */
@@ -40,6 +37,7 @@ public class TbGoodsProcessor {
     private final GoodsMapper goodsMapper;
     private final DtkApiService dtkApiService;
     private final GoodsCacheService goodsCacheService;
+    private final GoodsListCache goodsListCache;
     private final TbConvertService tbConvertService;
     private final PromotionInfoMapper promotionInfoMapper;
     private final UserService userService;
@@ -61,28 +59,37 @@ public class TbGoodsProcessor {
     }
 
     public JSONObject getTbDailyLowPrice(String sessions, int pageId, int pageSize) {
+        return goodsListCache.get("tb-daily-low", GoodsListCache.key(sessions, pageId, pageSize),
+                () -> fetchTbDailyLowPrice(sessions, pageId, pageSize));
+    }
+
+    private JSONObject fetchTbDailyLowPrice(String sessions, int pageId, int pageSize) {
         String response = dtkApiService.getDailyLowPrice(sessions, pageId, pageSize);
         return StringUtils.hasText(response) ? JSON.parseObject(response) : new JSONObject();
     }
 
     public JSONObject getTbFreeShippingList(String nineCid, int pageId, int pageSize) {
+        return goodsListCache.get("tb-free-shipping", GoodsListCache.key(nineCid, pageId, pageSize),
+                () -> fetchTbFreeShippingList(nineCid, pageId, pageSize));
+    }
+
+    private JSONObject fetchTbFreeShippingList(String nineCid, int pageId, int pageSize) {
         String response = dtkApiService.getFreeShippingList(nineCid, pageId, pageSize);
         return StringUtils.hasText(response) ? JSON.parseObject(response) : new JSONObject();
     }
 
     public JSONObject getTbExplosiveGoodList(String cids, String priceCid, int pageId, int pageSize) {
+        return goodsListCache.get("tb-explosive", GoodsListCache.key(cids, priceCid, pageId, pageSize),
+                () -> fetchTbExplosiveGoodList(cids, priceCid, pageId, pageSize));
+    }
+
+    private JSONObject fetchTbExplosiveGoodList(String cids, String priceCid, int pageId, int pageSize) {
         String response = dtkApiService.getExplosiveGoodList(cids, priceCid, pageId, pageSize);
         return StringUtils.hasText(response) ? JSON.parseObject(response) : new JSONObject();
     }
 
     public JSONObject getTbTrend(String type, String cid, int pageId, int pageSize) {
-        if (HOME_LIST_PAGE_ID == pageId
-                && HOME_LIST_PAGE_SIZE == pageSize
-                && HOME_TB_TREND_TYPE.equals(type)
-                && !StringUtils.hasText(cid)) {
-            return goodsCacheService.getOrLoadTbTrendFirstPage();
-        }
-        return goodsCacheService.fetchTbTrend(type, cid, pageId, pageSize);
+        return goodsCacheService.getTbTrend(type, cid, pageId, pageSize);
     }
 
     /**
@@ -3,6 +3,7 @@ package com.nei10u.tip.goods.processor;
 import com.alibaba.fastjson2.JSON;
 import com.alibaba.fastjson2.JSONArray;
 import com.alibaba.fastjson2.JSONObject;
+import com.nei10u.tip.goods.cache.GoodsListCache;
 import com.nei10u.tip.goods.normalize.GoodsNormalizeRegistry;
 import com.nei10u.tip.goods.normalize.GoodsNormalizeType;
 import com.nei10u.tip.service.HjkApiService;
@@ -25,8 +26,14 @@ public class VipGoodsProcessor {
 
     private final HjkApiService hjkApiService;
     private final GoodsNormalizeRegistry goodsNormalizeRegistry;
+    private final GoodsListCache goodsListCache;
 
     public JSONObject getVipHighCommissionGoodsList(int channelType, int sourceType, int pageId, int pageSize) {
+        return goodsListCache.get("vip-hc", GoodsListCache.key(channelType, sourceType, pageId, pageSize),
+                () -> fetchVipHighCommissionGoodsList(channelType, sourceType, pageId, pageSize));
+    }
+
+    private JSONObject fetchVipHighCommissionGoodsList(int channelType, int sourceType, int pageId, int pageSize) {
         int page = Math.max(pageId, 1);
         int size = pageSize <= 0 ? 20 : pageSize;
 
@@ -46,6 +53,11 @@ public class VipGoodsProcessor {
     }
 
     public JSONObject getVipExplosiveGoodsList(int channelType, int sourceType, int pageId, int pageSize) {
+        return goodsListCache.get("vip-explosive", GoodsListCache.key(channelType, sourceType, pageId, pageSize),
+                () -> fetchVipExplosiveGoodsList(channelType, sourceType, pageId, pageSize));
+    }
+
+    private JSONObject fetchVipExplosiveGoodsList(int channelType, int sourceType, int pageId, int pageSize) {
         int page = Math.max(pageId, 1);
         int size = pageSize <= 0 ? 20 : pageSize;
         // 1) 优先：HJK 唯品会
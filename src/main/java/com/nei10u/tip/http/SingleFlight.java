@@ -0,0 +1,61 @@
+package com.nei10u.tip.http;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Supplier;
+
+/**
+ * 相同键的并发调用合并（single-flight）：同一时刻只有第一个调用方（leader）真正执行，
+ * 其余调用方等待并共享其结果或异常；执行结束即移除，不做结果缓存。
+ * <p>
+ * leader 在自身线程内执行，等待方的最长等待时间由 leader 的调用超时决定。
+ */
+public class SingleFlight<T> {
+
+    /**
+     * 一次调用的结果。
+     *
+     * @param value  结果
+     * @param shared 是否复用了其他调用方的在途请求
+     */
+    public record Result<T>(T value, boolean shared) {
+    }
+
+    private final Map<String, CompletableFuture<T>> inFlight = new ConcurrentHashMap<>();
+
+    public Result<T> run(String key, Supplier<T> loader) {
+        CompletableFuture<T> mine = new CompletableFuture<>();
+        CompletableFuture<T> existing = inFlight.putIfAbsent(key, mine);
+        if (existing != null) {
+            return new Result<>(await(existing), true);
+        }
+
+        try {
+            T value = loader.get();
+            mine.complete(value);
+            return new Result<>(value, false);
+        } catch (RuntimeException | Error e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, mine);
+        }
+    }
+
+    private static <T> T await(CompletableFuture<T> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new UpstreamUnavailableException("Interrupted while waiting for in-flight request");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException re) throw re;
+            if (cause instanceof Error err) throw err;
+            throw new CompletionException(cause);
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.nei10u.tip.http;
+
+import java.util.function.Consumer;
+
+/**
+ * 按调用次数滑动窗口的熔断器（单个上游一个实例）。
+ * <p>
+ * - CLOSED：记录最近 windowSize 次结果；调用数 >= minimumCalls 且失败率 >= 阈值时打开
+ * - OPEN：直接拒绝，openMs 到期后进入 HALF_OPEN
+ * - HALF_OPEN：最多放行 halfOpenCalls 次试探；全部成功则关闭并清空窗口，任一失败重新打开
+ * <p>
+ * 状态切换量很小，方法整体加锁即可。
+ */
+final class UpstreamCircuitBreaker {
+
+    enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    /**
+     * 放行结果：TRIAL 为半开状态下的试探调用，其结果只对当次半开生效。
+     */
+    enum Permit {
+        REJECTED, NORMAL, TRIAL
+    }
+
+    private final int windowSize;
+    private final int minimumCalls;
+    private final int failureRateThreshold;
+    private final long openMs;
+    private final int halfOpenCalls;
+    private final Consumer<State> onTransition;
+
+    private final boolean[] outcomes;
+    private int next;
+    private int calls;
+    private int failures;
+
+    private State state = State.CLOSED;
+    private long openedAt;
+    private int trialsIssued;
+    private int trialsSucceeded;
+
+    UpstreamCircuitBreaker(int windowSize, int minimumCalls, int failureRateThreshold, long openMs,
+                           int halfOpenCalls, Consumer<State> onTransition) {
+        this.windowSize = Math.max(1, windowSize);
+        this.minimumCalls = Math.max(1, Math.min(minimumCalls, this.windowSize));
+        this.failureRateThreshold = Math.max(1, Math.min(100, failureRateThreshold));
+        this.openMs = Math.max(0, openMs);
+        this.halfOpenCalls = Math.max(1, halfOpenCalls);
+        this.onTransition = onTransition;
+        this.outcomes = new boolean[this.windowSize];
+    }
+
+    synchronized State state() {
+        return state;
+    }
+
+    synchronized Permit tryAcquire(long nowMs) {
+        if (state == State.OPEN) {
+            if (nowMs - openedAt < openMs) return Permit.REJECTED;
+            transition(State.HALF_OPEN);
+            trialsIssued = 0;
+            trialsSucceeded = 0;
+        }
+        if (state == State.HALF_OPEN) {
+            if (trialsIssued >= halfOpenCalls) return Permit.REJECTED;
+            trialsIssued++;
+            return Permit.TRIAL;
+        }
+        return Permit.NORMAL;
+    }
+
+    synchronized void onResult(Permit permit, boolean success, long nowMs) {
+        if (permit == Permit.TRIAL) {
+            if (state != State.HALF_OPEN) return;
+            if (!success) {
+                open(nowMs);
+            } else if (++trialsSucceeded >= halfOpenCalls) {
+                resetWindow();
+                transition(State.CLOSED);
+            }
+            return;
+        }
+        if (permit != Permit.NORMAL || state != State.CLOSED) return;
+
+        if (calls == windowSize) {
+            if (!outcomes[next]) failures--;
+        } else {
+            calls++;
+        }
+        outcomes[next] = success;
+        if (!success) failures++;
+        next = (next + 1) % windowSize;
+
+        if (calls >= minimumCalls && failures * 100 >= failureRateThreshold * calls) {
+            open(nowMs);
+        }
+    }
+
+    private void open(long nowMs) {
+        openedAt = nowMs;
+        transition(State.OPEN);
+    }
+
+    private void resetWindow() {
+        next = 0;
+        calls = 0;
+        failures = 0;
+    }
+
+    private void transition(State to) {
+        if (state == to) return;
+        state = to;
+        if (onTransition != null) onTransition.accept(to);
+    }
+}
@@ -0,0 +1,187 @@
+package com.nei10u.tip.http;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * 上游调用隔离：每个上游（dtk / ztk / hjk / ve / tb）一个舱壁 + 一个熔断器 + 最近成功响应兜底。
+ * <p>
+ * 调用顺序：舱壁许可 -> 熔断放行 -> 实际调用 -> 记录结果（异常、空响应、超过 slow-call-ms 均计失败）。
+ * 被舱壁拒绝或熔断打开时：
+ * - 传了 fallbackKey 且有最近一次成功响应：直接返回该响应（可能略旧）
+ * - 否则抛 {@link UpstreamUnavailableException}，由调用方按原有的失败路径处理
+ * <p>
+ * 带 fallbackKey 的调用同时按 upstream + fallbackKey 合并并发请求（{@link SingleFlight}），
+ * 突发流量下相同查询只打一次上游；订单/退款等需要准确数据的调用不要传 fallbackKey。
+ * 指标：http.client.breaker.state{upstream}（0 关闭 / 1 半开 / 2 打开）、http.client.breaker.transitions{upstream,to}、
+ * http.client.breaker.rejected / http.client.bulkhead.rejected / http.client.bulkhead.active{upstream}、
+ * http.client.guard.fallback{upstream,result}、http.client.singleflight{upstream,result=leader|shared}。
+ */
+@Slf4j
+@Component
+public class UpstreamGuard {
+
+    private final UpstreamGuardProperties props;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Lane> lanes = new ConcurrentHashMap<>();
+    private final Cache<String, String> lastGood;
+    private final SingleFlight<String> singleFlight = new SingleFlight<>();
+
+    public UpstreamGuard(UpstreamGuardProperties props, MeterRegistry meterRegistry) {
+        this.props = props;
+        this.meterRegistry = meterRegistry;
+        this.lastGood = Caffeine.newBuilder()
+                .maximumSize(Math.max(1, props.getLastGoodMaxSize()))
+                .expireAfterWrite(Duration.ofMinutes(Math.max(1, props.getLastGoodTtlMinutes())))
+                .build();
+    }
+
+    /**
+     * 单个上游的舱壁与熔断器。
+     */
+    private static final class Lane {
+        final Semaphore bulkhead;
+        final long maxWaitMs;
+        final long slowCallMs;
+        final UpstreamCircuitBreaker breaker;
+
+        Lane(Semaphore bulkhead, long maxWaitMs, long slowCallMs, UpstreamCircuitBreaker breaker) {
+            this.bulkhead = bulkhead;
+            this.maxWaitMs = maxWaitMs;
+            this.slowCallMs = slowCallMs;
+            this.breaker = breaker;
+        }
+    }
+
+    /**
+     * 规范化的请求键：url + 按参数名排序的 k=v（用于兜底缓存等）。
+     * 调用方需在加入随机数/时间戳/签名等每次变化的参数之前计算。
+     */
+    public static String key(String url, Map<String, ?> params) {
+        StringBuilder sb = new StringBuilder(url == null ? "" : url);
+        if (params == null || params.isEmpty()) return sb.toString();
+        char sep = '?';
+        for (Map.Entry<String, ?> e : new TreeMap<>(params).entrySet()) {
+            sb.append(sep).append(e.getKey()).append('=').append(e.getValue() == null ? "" : e.getValue());
+            sep = '&';
+        }
+        return sb.toString();
+    }
+
+    /**
+     * @param upstream    上游名
+     * @param fallbackKey 兜底缓存键（见 {@link #key}）；为 null 表示不使用兜底
+     * @param call        实际的 HTTP 调用
+     */
+    public String call(String upstream, String fallbackKey, Supplier<String> call) {
+        if (!props.isEnabled()) return call.get();
+        if (fallbackKey == null || !props.isCoalesce()) return guarded(upstream, fallbackKey, call);
+
+        SingleFlight.Result<String> r = singleFlight.run(upstream + "|" + fallbackKey,
+                () -> guarded(upstream, fallbackKey, call));
+        meterRegistry.counter("http.client.singleflight", "upstream", upstream,
+                "result", r.shared() ? "shared" : "leader").increment();
+        return r.value();
+    }
+
+    private String guarded(String upstream, String fallbackKey, Supplier<String> call) {
+        Lane lane = lanes.computeIfAbsent(upstream, this::newLane);
+        if (!acquire(lane)) {
+            meterRegistry.counter("http.client.bulkhead.rejected", "upstream", upstream).increment();
+            return fallback(upstream, fallbackKey, "bulkhead full");
+        }
+        try {
+            UpstreamCircuitBreaker.Permit permit = lane.breaker.tryAcquire(System.currentTimeMillis());
+            if (permit == UpstreamCircuitBreaker.Permit.REJECTED) {
+                meterRegistry.counter("http.client.breaker.rejected", "upstream", upstream).increment();
+                return fallback(upstream, fallbackKey, "circuit open");
+            }
+
+            long t0 = System.currentTimeMillis();
+            boolean success = false;
+            try {
+                String response = call.get();
+                success = StringUtils.hasText(response) && System.currentTimeMillis() - t0 <= lane.slowCallMs;
+                if (fallbackKey != null && StringUtils.hasText(response)) {
+                    lastGood.put(upstream + "|" + fallbackKey, response);
+                }
+                return response;
+            } finally {
+                lane.breaker.onResult(permit, success, System.currentTimeMillis());
+            }
+        } finally {
+            lane.bulkhead.release();
+        }
+    }
+
+    private boolean acquire(Lane lane) {
+        try {
+            return lane.maxWaitMs <= 0
+                    ? lane.bulkhead.tryAcquire()
+                    : lane.bulkhead.tryAcquire(lane.maxWaitMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private String fallback(String upstream, String fallbackKey, String reason) {
+        String cached = (fallbackKey == null) ? null : lastGood.getIfPresent(upstream + "|" + fallbackKey);
+        if (cached != null) {
+            meterRegistry.counter("http.client.guard.fallback", "upstream", upstream, "result", "stale").increment();
+            return cached;
+        }
+        meterRegistry.counter("http.client.guard.fallback", "upstream", upstream, "result", "none").increment();
+        throw new UpstreamUnavailableException("Upstream unavailable (" + reason + "): " + upstream);
+    }
+
+    private Lane newLane(String upstream) {
+        UpstreamGuardProperties.Guard d = props.getDefaults();
+        UpstreamGuardProperties.Guard c = props.getUpstreams().get(upstream);
+
+        int maxConcurrent = Math.max(1, pick(c == null ? null : c.getMaxConcurrent(), d.getMaxConcurrent(), 20));
+        Semaphore bulkhead = new Semaphore(maxConcurrent, true);
+        UpstreamCircuitBreaker breaker = new UpstreamCircuitBreaker(
+                pick(c == null ? null : c.getWindowSize(), d.getWindowSize(), 20),
+                pick(c == null ? null : c.getMinimumCalls(), d.getMinimumCalls(), 10),
+                pick(c == null ? null : c.getFailureRateThreshold(), d.getFailureRateThreshold(), 50),
+                pick(c == null ? null : c.getOpenMs(), d.getOpenMs(), 30000),
+                pick(c == null ? null : c.getHalfOpenCalls(), d.getHalfOpenCalls(), 3),
+                to -> {
+                    log.warn("Upstream circuit breaker -> {}: upstream={}", to, upstream);
+                    meterRegistry.counter("http.client.breaker.transitions", "upstream", upstream, "to", to.name())
+                            .increment();
+                });
+        Lane lane = new Lane(bulkhead,
+                pick(c == null ? null : c.getMaxWaitMs(), d.getMaxWaitMs(), 100),
+                pick(c == null ? null : c.getSlowCallMs(), d.getSlowCallMs(), 5000),
+                breaker);
+
+        Gauge.builder("http.client.breaker.state", breaker, b -> switch (b.state()) {
+                    case CLOSED -> 0;
+                    case HALF_OPEN -> 1;
+                    case OPEN -> 2;
+                })
+                .tag("upstream", upstream).register(meterRegistry);
+        Gauge.builder("http.client.bulkhead.active", bulkhead, s -> maxConcurrent - s.availablePermits())
+                .tag("upstream", upstream).register(meterRegistry);
+        return lane;
+    }
+
+    private static <T> T pick(T value, T fallback, T hardDefault) {
+        return value != null ? value : (fallback != null ? fallback : hardDefault);
+    }
+}
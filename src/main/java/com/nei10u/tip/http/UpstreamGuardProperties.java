@@ -0,0 +1,104 @@
+package com.nei10u.tip.http;
+
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 上游隔离/熔断参数（application.yml: app.http.guard.*）。
+ * <p>
+ * 上游名与 {@link UpstreamGuard#call} 的 upstream 参数一致（dtk / ztk / hjk / ve / tb）；
+ * 上游未配置的项取 defaults。
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.http.guard")
+public class UpstreamGuardProperties {
+
+    private boolean enabled = true;
+
+    /**
+     * 是否合并相同请求（single-flight）：同一上游、同一请求键的并发调用共享一次在途请求；
+     * 仅对带兜底键的调用生效（商品类接口），订单类调用不合并
+     */
+    private boolean coalesce = true;
+
+    /**
+     * 熔断/拒绝时兜底用的“最近一次成功响应”缓存条数（所有上游共用）
+     */
+    private long lastGoodMaxSize = 5000;
+
+    /**
+     * 兜底响应最长保留时间（分钟）
+     */
+    private long lastGoodTtlMinutes = 60;
+
+    private Guard defaults = new Guard();
+
+    private Map<String, Upstream> upstreams = new LinkedHashMap<>();
+
+    @Data
+    public static class Guard {
+
+        /**
+         * 舱壁：该上游同时在途的最大请求数
+         */
+        private Integer maxConcurrent = 20;
+
+        /**
+         * 舱壁满时的最长等待（毫秒）；0 表示不等待直接拒绝
+         */
+        private Integer maxWaitMs = 100;
+
+        /**
+         * 熔断统计窗口：最近 N 次调用
+         */
+        private Integer windowSize = 20;
+
+        /**
+         * 窗口内至少多少次调用才开始计算失败率
+         */
+        private Integer minimumCalls = 10;
+
+        /**
+         * 失败率阈值（百分比），达到即打开熔断
+         */
+        private Integer failureRateThreshold = 50;
+
+        /**
+         * 慢调用阈值（毫秒）：超过即按失败计
+         */
+        private Integer slowCallMs = 5000;
+
+        /**
+         * 熔断打开持续时间（毫秒），到期进入半开
+         */
+        private Integer openMs = 30000;
+
+        /**
+         * 半开状态放行的试探调用数；全部成功则关闭，任一失败重新打开
+         */
+        private Integer halfOpenCalls = 3;
+    }
+
+    @Data
+    @EqualsAndHashCode(callSuper = true)
+    public static class Upstream extends Guard {
+
+        public Upstream() {
+            // 置空：未配置的项回落到 defaults
+            setMaxConcurrent(null);
+            setMaxWaitMs(null);
+            setWindowSize(null);
+            setMinimumCalls(null);
+            setFailureRateThreshold(null);
+            setSlowCallMs(null);
+            setOpenMs(null);
+            setHalfOpenCalls(null);
+        }
+    }
+}
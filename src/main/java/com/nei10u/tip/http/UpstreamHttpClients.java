@@ -0,0 +1,137 @@
+package com.nei10u.tip.http;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.client.ClientHttpRequest;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 上游 HTTP 客户端注册表 + 按域名路由的请求工厂。
+ * <p>
+ * - 每个上游一个 JDK HttpClient（自带 keep-alive 连接复用；开启 http2 时 HTTPS 经 ALPN 协商 HTTP/2）
+ * - 建连/读超时按上游配置；未匹配的域名走 "default"
+ * - JDK HttpClient 不限制连接数：每个域名（host:port）一个信号量作为连接池上限，
+ *   由 {@link UpstreamHttpInterceptor} 在请求前后获取/释放，并上报池占用指标
+ */
+@Slf4j
+@Component
+public class UpstreamHttpClients implements ClientHttpRequestFactory {
+
+    public static final String DEFAULT_UPSTREAM = "default";
+
+    /**
+     * 单个上游的已解析配置与客户端。
+     */
+    public record UpstreamClient(String name, ClientHttpRequestFactory requestFactory, int maxConnectionsPerHost,
+                                 long acquireTimeoutMs, boolean gzip) {
+    }
+
+    /**
+     * 单个域名的并发许可（连接池上限）与占用计数。
+     */
+    public static final class HostPool {
+        final Semaphore permits;
+        final AtomicInteger active = new AtomicInteger();
+        final AtomicInteger pending = new AtomicInteger();
+
+        HostPool(int max) {
+            this.permits = new Semaphore(max, true);
+        }
+    }
+
+    private final MeterRegistry meterRegistry;
+    private final Map<String, UpstreamClient> byHost = new HashMap<>();
+    private final UpstreamClient defaultClient;
+    private final Map<String, HostPool> hostPools = new ConcurrentHashMap<>();
+
+    public UpstreamHttpClients(UpstreamHttpProperties props, MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        UpstreamHttpProperties.Client defaults = props.getDefaults();
+
+        UpstreamClient fallback = null;
+        for (Map.Entry<String, UpstreamHttpProperties.Upstream> e : props.getUpstreams().entrySet()) {
+            UpstreamClient client = build(e.getKey(), e.getValue(), defaults);
+            if (DEFAULT_UPSTREAM.equals(e.getKey())) fallback = client;
+            for (String host : e.getValue().getHosts()) {
+                if (StringUtils.hasText(host)) byHost.put(host.trim().toLowerCase(Locale.ROOT), client);
+            }
+        }
+        this.defaultClient = (fallback != null) ? fallback : build(DEFAULT_UPSTREAM, null, defaults);
+        log.info("Upstream HTTP clients ready: hosts={}", byHost.keySet());
+    }
+
+    @Override
+    public ClientHttpRequest createRequest(URI uri, HttpMethod httpMethod) throws IOException {
+        return resolve(uri).requestFactory().createRequest(uri, httpMethod);
+    }
+
+    public UpstreamClient resolve(URI uri) {
+        String host = uri.getHost();
+        if (host == null) return defaultClient;
+        return byHost.getOrDefault(host.toLowerCase(Locale.ROOT), defaultClient);
+    }
+
+    /**
+     * 域名（host:port）级连接池，首次访问时创建并注册指标。
+     */
+    public HostPool hostPool(UpstreamClient client, URI uri) {
+        String key = authority(uri);
+        return hostPools.computeIfAbsent(key, k -> {
+            HostPool pool = new HostPool(client.maxConnectionsPerHost());
+            Tags tags = Tags.of("upstream", client.name(), "host", k);
+            Gauge.builder("http.client.pool.active", pool.active, AtomicInteger::get).tags(tags).register(meterRegistry);
+            Gauge.builder("http.client.pool.pending", pool.pending, AtomicInteger::get).tags(tags).register(meterRegistry);
+            Gauge.builder("http.client.pool.max", pool, p -> client.maxConnectionsPerHost()).tags(tags)
+                    .register(meterRegistry);
+            return pool;
+        });
+    }
+
+    private static String authority(URI uri) {
+        String host = (uri.getHost() == null) ? "unknown" : uri.getHost().toLowerCase(Locale.ROOT);
+        int port = uri.getPort();
+        if (port < 0) port = "https".equalsIgnoreCase(uri.getScheme()) ? 443 : 80;
+        return host + ":" + port;
+    }
+
+    private static UpstreamClient build(String name, UpstreamHttpProperties.Client cfg,
+                                        UpstreamHttpProperties.Client defaults) {
+        int connectTimeoutMs = pick(cfg == null ? null : cfg.getConnectTimeoutMs(), defaults.getConnectTimeoutMs(), 3000);
+        int readTimeoutMs = pick(cfg == null ? null : cfg.getReadTimeoutMs(), defaults.getReadTimeoutMs(), 10000);
+        int maxPerHost = pick(cfg == null ? null : cfg.getMaxConnectionsPerHost(), defaults.getMaxConnectionsPerHost(), 32);
+        int acquireTimeoutMs = pick(cfg == null ? null : cfg.getAcquireTimeoutMs(), defaults.getAcquireTimeoutMs(), 2000);
+        boolean http2 = pick(cfg == null ? null : cfg.getHttp2(), defaults.getHttp2(), false);
+        boolean gzip = pick(cfg == null ? null : cfg.getGzip(), defaults.getGzip(), true);
+
+        HttpClient httpClient = HttpClient.newBuilder()
+                .version(http2 ? HttpClient.Version.HTTP_2 : HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofMillis(Math.max(1, connectTimeoutMs)))
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .build();
+        JdkClientHttpRequestFactory factory = new JdkClientHttpRequestFactory(httpClient);
+        factory.setReadTimeout(Duration.ofMillis(Math.max(1, readTimeoutMs)));
+
+        log.info("Upstream HTTP client: name={}, connectTimeoutMs={}, readTimeoutMs={}, maxPerHost={}, http2={}, gzip={}",
+                name, connectTimeoutMs, readTimeoutMs, maxPerHost, http2, gzip);
+        return new UpstreamClient(name, factory, Math.max(1, maxPerHost), Math.max(0, acquireTimeoutMs), gzip);
+    }
+
+    private static <T> T pick(T value, T fallback, T hardDefault) {
+        return value != null ? value : (fallback != null ? fallback : hardDefault);
+    }
+}
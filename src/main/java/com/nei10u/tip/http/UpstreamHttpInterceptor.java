@@ -0,0 +1,182 @@
+package com.nei10u.tip.http;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * 上游请求拦截：域名连接池许可、gzip、按上游的延迟直方图。
+ * <p>
+ * - 池满时最多等待 acquire-timeout，超时抛 {@link ResourceAccessException}（与网络异常同一处理路径），
+ *   避免慢上游把调用线程全部拖住
+ * - 许可在响应关闭时释放（RestTemplate 读完响应体后关闭）
+ * - 指标：http.client.upstream{upstream,method,outcome}（含百分位直方图）、http.client.pool.rejected
+ */
+@Component
+@RequiredArgsConstructor
+public class UpstreamHttpInterceptor implements ClientHttpRequestInterceptor {
+
+    private final UpstreamHttpClients clients;
+    private final MeterRegistry meterRegistry;
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution)
+            throws IOException {
+        UpstreamHttpClients.UpstreamClient client = clients.resolve(request.getURI());
+        UpstreamHttpClients.HostPool pool = clients.hostPool(client, request.getURI());
+
+        acquire(client, pool, request);
+        pool.active.incrementAndGet();
+        long t0 = System.nanoTime();
+        try {
+            if (client.gzip() && !request.getHeaders().containsKey(HttpHeaders.ACCEPT_ENCODING)) {
+                request.getHeaders().set(HttpHeaders.ACCEPT_ENCODING, "gzip");
+            }
+            ClientHttpResponse response = execution.execute(request, body);
+            record(client, request, outcome(response.getStatusCode()), t0);
+            return new PooledResponse(response, pool, client.gzip() && isGzip(response.getHeaders()));
+        } catch (IOException | RuntimeException e) {
+            record(client, request, "IO_ERROR", t0);
+            release(pool);
+            throw e;
+        }
+    }
+
+    private void acquire(UpstreamHttpClients.UpstreamClient client, UpstreamHttpClients.HostPool pool,
+                         HttpRequest request) {
+        boolean acquired;
+        pool.pending.incrementAndGet();
+        try {
+            acquired = pool.permits.tryAcquire(client.acquireTimeoutMs(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            acquired = false;
+        } finally {
+            pool.pending.decrementAndGet();
+        }
+        if (!acquired) {
+            meterRegistry.counter("http.client.pool.rejected", "upstream", client.name()).increment();
+            record(client, request, "REJECTED", System.nanoTime());
+            throw new ResourceAccessException("Upstream connection pool exhausted: upstream=" + client.name()
+                    + ", host=" + request.getURI().getHost() + ", max=" + client.maxConnectionsPerHost());
+        }
+    }
+
+    private void record(UpstreamHttpClients.UpstreamClient client, HttpRequest request, String outcome, long t0) {
+        Timer.builder("http.client.upstream")
+                .tag("upstream", client.name())
+                .tag("method", request.getMethod().name())
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(System.nanoTime() - t0, TimeUnit.NANOSECONDS);
+    }
+
+    private static String outcome(HttpStatusCode status) {
+        if (status.is2xxSuccessful()) return "SUCCESS";
+        if (status.is3xxRedirection()) return "REDIRECTION";
+        if (status.is4xxClientError()) return "CLIENT_ERROR";
+        if (status.is5xxServerError()) return "SERVER_ERROR";
+        return "UNKNOWN";
+    }
+
+    private static boolean isGzip(HttpHeaders headers) {
+        String encoding = headers.getFirst(HttpHeaders.CONTENT_ENCODING);
+        return encoding != null && encoding.trim().equalsIgnoreCase("gzip");
+    }
+
+    private static void release(UpstreamHttpClients.HostPool pool) {
+        pool.active.decrementAndGet();
+        pool.permits.release();
+    }
+
+    /**
+     * 关闭时归还连接池许可；gzip 响应透明解压并去掉 Content-Encoding / Content-Length。
+     */
+    private static final class PooledResponse implements ClientHttpResponse {
+        private final ClientHttpResponse delegate;
+        private final UpstreamHttpClients.HostPool pool;
+        private final boolean gzip;
+        private HttpHeaders headers;
+        private InputStream body;
+        private boolean released;
+
+        PooledResponse(ClientHttpResponse delegate, UpstreamHttpClients.HostPool pool, boolean gzip) {
+            this.delegate = delegate;
+            this.pool = pool;
+            this.gzip = gzip;
+        }
+
+        @Override
+        public HttpStatusCode getStatusCode() throws IOException {
+            return delegate.getStatusCode();
+        }
+
+        @Override
+        public String getStatusText() throws IOException {
+            return delegate.getStatusText();
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            if (headers == null) {
+                if (gzip) {
+                    HttpHeaders copy = new HttpHeaders();
+                    copy.putAll(delegate.getHeaders());
+                    copy.remove(HttpHeaders.CONTENT_ENCODING);
+                    copy.remove(HttpHeaders.CONTENT_LENGTH);
+                    headers = copy;
+                } else {
+                    headers = delegate.getHeaders();
+                }
+            }
+            return headers;
+        }
+
+        @Override
+        public InputStream getBody() throws IOException {
+            if (body == null) {
+                InputStream raw = delegate.getBody();
+                // 空响应体（如 204 / HEAD）不能包 GZIPInputStream，否则读头即 EOF 异常
+                body = gzip ? gunzipIfNotEmpty(raw.markSupported() ? raw : new BufferedInputStream(raw)) : raw;
+            }
+            return body;
+        }
+
+        private static InputStream gunzipIfNotEmpty(InputStream in) throws IOException {
+            in.mark(1);
+            if (in.read() < 0) return in;
+            in.reset();
+            return new GZIPInputStream(in);
+        }
+
+        @Override
+        public void close() {
+            try {
+                if (body != null) body.close();
+            } catch (IOException ignored) {
+                // 响应体关闭失败不影响许可归还
+            } finally {
+                delegate.close();
+                if (!released) {
+                    released = true;
+                    release(pool);
+                }
+            }
+        }
+    }
+}
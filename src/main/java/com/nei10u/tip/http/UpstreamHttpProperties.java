@@ -0,0 +1,87 @@
+package com.nei10u.tip.http;
+
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 上游 HTTP 客户端参数（application.yml: app.http.*）。
+ * <p>
+ * 按域名把请求归到某个上游（dtk / ztk / hjk / ve / tb ...），每个上游独立的连接池、超时与并发上限；
+ * 上游未配置的项取 defaults，未匹配到任何上游的域名归入 "default"。
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.http")
+public class UpstreamHttpProperties {
+
+    /**
+     * 各上游未单独配置时的取值
+     */
+    private Client defaults = new Client();
+
+    /**
+     * 上游名 -> 配置
+     */
+    private Map<String, Upstream> upstreams = new LinkedHashMap<>();
+
+    @Data
+    public static class Client {
+
+        /**
+         * 建连超时（毫秒）
+         */
+        private Integer connectTimeoutMs = 3000;
+
+        /**
+         * 读超时（毫秒）：发出请求到收到响应头
+         */
+        private Integer readTimeoutMs = 10000;
+
+        /**
+         * 单个域名的最大并发请求数（即连接池上限）
+         */
+        private Integer maxConnectionsPerHost = 32;
+
+        /**
+         * 池满时等待空闲连接的最长时间（毫秒），超时快速失败
+         */
+        private Integer acquireTimeoutMs = 2000;
+
+        /**
+         * 是否尝试 HTTP/2（HTTPS 经 ALPN 协商，不支持时回落 HTTP/1.1；明文 HTTP 上游建议关闭）
+         */
+        private Boolean http2 = false;
+
+        /**
+         * 是否请求 gzip 压缩响应（Accept-Encoding: gzip）并透明解压
+         */
+        private Boolean gzip = true;
+    }
+
+    @Data
+    @EqualsAndHashCode(callSuper = true)
+    public static class Upstream extends Client {
+
+        /**
+         * 归属该上游的域名（精确匹配，忽略大小写）
+         */
+        private List<String> hosts = new ArrayList<>();
+
+        public Upstream() {
+            // 置空：未配置的项回落到 defaults
+            setConnectTimeoutMs(null);
+            setReadTimeoutMs(null);
+            setMaxConnectionsPerHost(null);
+            setAcquireTimeoutMs(null);
+            setHttp2(null);
+            setGzip(null);
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package com.nei10u.tip.http;
+
+/**
+ * 上游被熔断或舱壁已满、且没有可用兜底响应时抛出。
+ * <p>
+ * 属于预期内的快速失败，不采集堆栈，避免调用方 catch 后打印大量重复堆栈。
+ */
+public class UpstreamUnavailableException extends RuntimeException {
+
+    public UpstreamUnavailableException(String message) {
+        super(message, null, false, false);
+    }
+}
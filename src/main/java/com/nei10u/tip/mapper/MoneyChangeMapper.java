@@ -5,6 +5,8 @@ import com.nei10u.tip.model.MoneyChange;
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
 
+import java.util.List;
+
 /**
  * 资金流水 Mapper（用于审计与幂等）。
  */
@@ -15,6 +17,13 @@ public interface MoneyChangeMapper extends BaseMapper<MoneyChange> {
      * 幂等插入：若 uuid 已存在则不插入（返回 0）。
      */
     int insertIgnore(@Param("mc") MoneyChange mc);
+
+    /**
+     * 批量幂等插入（uuid 须在批内去重）。
+     *
+     * @return 本次实际插入的 uuid（已存在的被忽略，不在结果中）
+     */
+    List<String> insertIgnoreBatch(@Param("list") List<MoneyChange> list);
 }
 
 
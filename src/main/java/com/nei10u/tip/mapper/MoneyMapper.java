@@ -5,6 +5,9 @@ import com.nei10u.tip.model.Money;
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
 
+import java.util.Collection;
+import java.util.List;
+
 /**
  * 资金Mapper
  */
@@ -39,4 +42,15 @@ public interface MoneyMapper extends BaseMapper<Money> {
          */
         int deductFrozenMoney(@Param("userId") String userId,
                         @Param("amount") Double amount);
+
+        /**
+         * 批量确保资金账户存在（已存在的忽略）
+         */
+        int ensureAccounts(@Param("userIds") Collection<String> userIds);
+
+        /**
+         * 批量累加余额（结算按用户聚合后的增量，每用户一行）。
+         * rows 使用 userId / balance（余额增量）/ totalIncome（收入增量，仅正向部分）。
+         */
+        int batchAddBalance(@Param("rows") List<Money> rows);
 }
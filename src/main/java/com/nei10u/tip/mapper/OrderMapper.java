@@ -3,10 +3,14 @@ package com.nei10u.tip.mapper;
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import com.baomidou.mybatisplus.core.metadata.IPage;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.nei10u.tip.dto.OrderListItemDto;
 import com.nei10u.tip.model.Order;
+import com.nei10u.tip.vo.UserEarningsOverviewVO;
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.cursor.Cursor;
 
+import java.util.Date;
 import java.util.List;
 
 /**
@@ -16,14 +20,14 @@ import java.util.List;
 public interface OrderMapper extends BaseMapper<Order> {
 
     /**
-     * 根据用户ID分页查询订单
+     * 根据用户ID分页查询订单（列表展示列投影）
      */
-    IPage<Order> getOrdersByUserId(Page<?> page, @Param("userId") Long userId);
+    IPage<OrderListItemDto> getOrdersByUserId(Page<?> page, @Param("userId") Long userId);
 
     /**
-     * 根据用户ID和状态查询订单
+     * 根据用户ID和状态查询订单（列表展示列投影）
      */
-    IPage<Order> getOrdersByStatus(Page<?> page,
+    IPage<OrderListItemDto> getOrdersByStatus(Page<?> page,
             @Param("userId") Long userId,
             @Param("statusList") List<Byte> statusList);
 
@@ -32,6 +36,15 @@ public interface OrderMapper extends BaseMapper<Order> {
      */
     int insertOrUpdateBatch(@Param("orders") List<Order> orders);
 
+    /**
+     * 将 orders_ingest_staging 中指定批次合并进 orders（冲突处理与 insertOrUpdateBatch 相同）。
+     *
+     * @return 新增 + 实际变更的行数
+     */
+    int mergeIngestBatch(@Param("batchId") String batchId);
+
+    int deleteIngestBatch(@Param("batchId") String batchId);
+
     /**
      * 根据订单号查询
      */
@@ -62,8 +75,81 @@ public interface OrderMapper extends BaseMapper<Order> {
      */
     Double sumCreditedFee(@Param("userId") Long userId);
 
+    /**
+     * 游标分页（keyset）：按 (create_time DESC, id DESC) 取游标之后的 limit 条，走 idx_orders_user_create_time_id。
+     * 只查询列表展示列，直接映射为 {@link OrderListItemDto}。
+     *
+     * @param statusList 为空时不过滤状态
+     * @param hasCursor  false 表示第一页（忽略 cursorTime / cursorId）
+     * @param cursorTime 上一页最后一条的 create_time；为 null 表示该行 create_time 为空
+     * @param cursorId   上一页最后一条的 id
+     */
+    List<OrderListItemDto> listOrderItemsByCursor(@Param("userId") Long userId,
+                                                  @Param("statusList") List<Byte> statusList,
+                                                  @Param("hasCursor") boolean hasCursor,
+                                                  @Param("cursorTime") Date cursorTime,
+                                                  @Param("cursorId") Long cursorId,
+                                                  @Param("limit") int limit);
+
+    /**
+     * 用户统计概览单次聚合（COUNT/SUM ... FILTER），口径与上面的 countOrdersByStatus / sumShareFeeByStatus /
+     * sumReceivableByPayMonth / sumToBeReceiveAfterPayMonth / sumCreditedFee 一致；bucketCount 不填。
+     */
+    UserEarningsOverviewVO selectUserSummary(@Param("userId") Long userId,
+                                             @Param("currentKey") String currentKey,
+                                             @Param("nextKey") String nextKey);
+
     /**
      * 回填历史订单 user_id（通过 orders.sid 匹配 users.relation_id/special_id/pdd_pid/union_id）
      */
     int backFillOrderUserId();
+
+    /**
+     * 按 ds_order_sn 批量更新退款状态（UPDATE ... FROM (VALUES ...)），refund_status 已一致的行跳过。
+     * rows 仅使用 dsOrderSn / refundStatus / statusContent，dsOrderSn 须在批内去重。
+     *
+     * @return 实际更新的行数
+     */
+    int batchUpdateRefundStatus(@Param("rows") List<Order> rows);
+
+    /**
+     * 按 ds_order_sn 批量锁单并写处罚原因（UPDATE ... FROM (VALUES ...)），
+     * 已处于锁单/失效状态且原因相同的行跳过。
+     * rows 仅使用 dsOrderSn / punishReason / statusContent，dsOrderSn 须在批内去重。
+     *
+     * @return 实际翻转状态的行数
+     */
+    int batchUpdatePunish(@Param("rows") List<Order> rows);
+
+    /**
+     * 月度结算候选订单（服务端游标流式读取，须在事务内迭代）：
+     * SQL 侧预过滤 desiredCredit 与 credited_fee 不一致的订单，按 id 升序。
+     * 仅返回结算所需列：id / order_sn / user_id / share_fee / credited_fee / order_status / order_lock / create_time。
+     *
+     * @param partitions    分区数（MOD(user_id, partitions) = partition）；<= 1 表示不分区
+     * @param minCreateTime 回看窗口下界（orders 分区裁剪）；null 表示全量
+     */
+    Cursor<Order> streamReconcileCandidates(@Param("afterId") long afterId,
+                                            @Param("partitions") int partitions,
+                                            @Param("partition") int partition,
+                                            @Param("minCreateTime") Date minCreateTime);
+
+    /**
+     * 结算预演候选订单：与 {@link #streamReconcileCandidates} 同一候选集，按 (user_id, id) 排序（服务端游标）。
+     */
+    Cursor<Order> streamReconcileCandidatesByUser(@Param("minCreateTime") Date minCreateTime);
+
+    /**
+     * 按 id 批量回写 credited_fee（UPDATE ... FROM (VALUES ...)）。
+     * rows 仅使用 id / creditedFee；[minCreateTime, maxCreateTime] 为本批订单 create_time 范围（分区裁剪），任一为 null 时不加条件。
+     */
+    int batchUpdateCreditedFee(@Param("rows") List<Order> rows,
+                               @Param("minCreateTime") Date minCreateTime,
+                               @Param("maxCreateTime") Date maxCreateTime);
+
+    /**
+     * 登记新订单号（order_sn_keys），返回每个订单号实际登记的 create_time（仅 orderSn / createTime）。
+     * rows 内订单号不得重复。
+     */
+    List<Order> registerOrderSnKeys(@Param("rows") List<Order> rows);
 }
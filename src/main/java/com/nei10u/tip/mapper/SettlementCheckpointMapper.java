@@ -0,0 +1,25 @@
+package com.nei10u.tip.mapper;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.nei10u.tip.model.SettlementCheckpoint;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+import java.util.Date;
+import java.util.List;
+
+/**
+ * 月度结算分区断点 Mapper。
+ */
+@Mapper
+public interface SettlementCheckpointMapper extends BaseMapper<SettlementCheckpoint> {
+
+    List<SettlementCheckpoint> listByRunKey(@Param("runKey") String runKey);
+
+    /**
+     * 按 (runKey, partitionNo) upsert；lastId 只前进不后退。
+     */
+    int save(@Param("c") SettlementCheckpoint c);
+
+    int deleteBefore(@Param("before") Date before);
+}
@@ -5,6 +5,8 @@ import com.nei10u.tip.model.TbOrderRefund;
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
 
+import java.util.List;
+
 /**
  * 淘宝退款证据链 Mapper。
  */
@@ -12,9 +14,16 @@ import org.apache.ibatis.annotations.Param;
 public interface TbOrderRefundMapper extends BaseMapper<TbOrderRefund> {
 
     /**
-     * 按 tradeId 幂等 upsert（tradeId 唯一）。
+     * 按 (tradeId, source) 幂等 upsert。
      */
     int upsert(@Param("r") TbOrderRefund r);
+
+    /**
+     * 多行 upsert（(tradeId, source) 须在批内去重）；rawHash 与库中同来源行一致时不重写。
+     *
+     * @return 实际插入/更新的行数
+     */
+    int upsertBatch(@Param("list") List<TbOrderRefund> list);
 }
 
 
@@ -0,0 +1,31 @@
+package com.nei10u.tip.mapper;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.nei10u.tip.model.TbRefundDayState;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+import java.util.Date;
+import java.util.List;
+
+/**
+ * TB 退款补偿按日状态 Mapper。
+ */
+@Mapper
+public interface TbRefundDayStateMapper extends BaseMapper<TbRefundDayState> {
+
+    /**
+     * 查询 fromDay（含）之后的按日状态。
+     */
+    List<TbRefundDayState> listSince(@Param("bizType") Long bizType, @Param("fromDay") Date fromDay);
+
+    /**
+     * 按 (bizType, syncDay) 幂等 upsert。
+     */
+    int upsert(@Param("s") TbRefundDayState s);
+
+    /**
+     * 清理窗口外的历史状态。
+     */
+    int deleteBefore(@Param("bizType") Long bizType, @Param("beforeDay") Date beforeDay);
+}
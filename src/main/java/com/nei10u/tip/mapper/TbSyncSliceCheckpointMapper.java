@@ -0,0 +1,31 @@
+package com.nei10u.tip.mapper;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.nei10u.tip.model.TbSyncSliceCheckpoint;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+import java.util.Date;
+import java.util.List;
+
+/**
+ * TB 回溯切片断点 Mapper。
+ */
+@Mapper
+public interface TbSyncSliceCheckpointMapper extends BaseMapper<TbSyncSliceCheckpoint> {
+
+    /**
+     * 查询某批次已完成的切片起点。
+     */
+    List<Date> listDoneSliceStarts(@Param("runKey") String runKey);
+
+    /**
+     * 按 (runKey, sliceStart) 幂等记录切片完成。
+     */
+    int markDone(@Param("c") TbSyncSliceCheckpoint c);
+
+    /**
+     * 清理过期断点。
+     */
+    int deleteBefore(@Param("before") Date before);
+}
@@ -0,0 +1,27 @@
+package com.nei10u.tip.mapper;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.nei10u.tip.model.TbSyncWatermark;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+import java.util.Date;
+
+/**
+ * TB 增量同步高水位 Mapper。
+ */
+@Mapper
+public interface TbSyncWatermarkMapper extends BaseMapper<TbSyncWatermark> {
+
+    /**
+     * 查询水位；不存在返回 null。
+     */
+    Date getWatermark(@Param("orderScene") Long orderScene, @Param("syncType") String syncType);
+
+    /**
+     * 推进水位（只前进不后退）。
+     */
+    int advance(@Param("orderScene") Long orderScene,
+                @Param("syncType") String syncType,
+                @Param("watermark") Date watermark);
+}
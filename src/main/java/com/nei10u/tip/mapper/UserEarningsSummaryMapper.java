@@ -0,0 +1,57 @@
+package com.nei10u.tip.mapper;
+
+import com.nei10u.tip.vo.UserEarningsOverviewVO;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * 用户收益汇总 Mapper。
+ */
+@Mapper
+public interface UserEarningsSummaryMapper {
+
+    /**
+     * 单用户概览：一次主键范围扫描聚合全部分桶。
+     */
+    UserEarningsOverviewVO selectOverview(@Param("userId") Long userId,
+                                       @Param("currentKey") String currentKey,
+                                       @Param("nextKey") String nextKey);
+
+    /**
+     * 在当前事务内按 user_id 升序对指定用户加 advisory lock（事务结束释放），须在重算前调用。
+     */
+    Integer lockUsers(@Param("userIds") Collection<Long> userIds);
+
+    /**
+     * 按订单表重算指定用户的全部分桶（upsert，值未变化的行不重写）。
+     */
+    int refreshUsers(@Param("userIds") Collection<Long> userIds);
+
+    /**
+     * 删除指定用户中已无订单的分桶。
+     */
+    int deleteStaleBuckets(@Param("userIds") Collection<Long> userIds);
+
+    /**
+     * 按 ds_order_sn 定位订单归属用户（退款/处罚按 tradeId 批量更新后用于重算汇总）。
+     */
+    List<Long> listUserIdsByDsOrderSns(@Param("dsOrderSns") Collection<String> dsOrderSns);
+
+    /**
+     * 重建任务：按 user_id 升序分批取有订单的用户。
+     */
+    List<Long> listOrderUserIds(@Param("afterUserId") long afterUserId, @Param("limit") int limit);
+
+    /**
+     * 重建任务：统计指定用户中汇总与订单表重算结果不一致的分桶数。
+     */
+    int countDrift(@Param("userIds") Collection<Long> userIds);
+
+    /**
+     * 重建任务：删除已无订单的用户的汇总行。
+     */
+    int deleteOrphanUsers();
+}
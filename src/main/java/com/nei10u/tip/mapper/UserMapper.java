@@ -5,6 +5,9 @@ import com.nei10u.tip.model.User;
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
 
+import java.util.Collection;
+import java.util.List;
+
 /**
  * 用户Mapper (基于参考实现)
  */
@@ -55,4 +58,18 @@ public interface UserMapper extends BaseMapper<User> {
      * 根据小程序OpenID查询
      */
     User getUserByMnOpenId(@Param("mnOpenId") String mnOpenId);
+
+    // ==========================================
+    // 订单归属批量解析（仅返回 id + 对应键列，按 id 升序）
+    // ==========================================
+
+    List<User> listIdsByRelationIds(@Param("keys") Collection<Long> relationIds);
+
+    List<User> listIdsBySpecialIds(@Param("keys") Collection<Long> specialIds);
+
+    List<User> listIdsByPddPids(@Param("keys") Collection<String> pddPids);
+
+    List<User> listIdsByJdAuthIds(@Param("keys") Collection<String> jdAuthIds);
+
+    List<User> listIdsByUnionIds(@Param("keys") Collection<String> unionIds);
 }
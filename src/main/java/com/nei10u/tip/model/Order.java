@@ -257,4 +257,15 @@ public class Order {
      * 如果订单被判定为违规推广，此处记录原因。
      */
     private String punishReason;
+
+    // ==========================================
+    // 同步元数据
+    // ==========================================
+
+    /**
+     * 内容指纹
+     * 同步映射出的业务字段哈希（见 OrderFingerprintUtil）；
+     * upsert 时指纹未变化则跳过更新，避免无效写入。
+     */
+    private String fingerprint;
 }
@@ -0,0 +1,36 @@
+package com.nei10u.tip.model;
+
+import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.annotation.TableId;
+import com.baomidou.mybatisplus.annotation.TableName;
+import lombok.Data;
+
+import java.util.Date;
+
+/**
+ * 月度结算分区断点。
+ *
+ * 对应表：settlement_checkpoint
+ */
+@Data
+@TableName("settlement_checkpoint")
+public class SettlementCheckpoint {
+
+    @TableId(value = "id", type = IdType.AUTO)
+    private Long id;
+
+    /** 运行批次 key（如 MONTHLY:20251024:K4），分区数变化即为新批次 */
+    private String runKey;
+
+    /** 分区号：MOD(user_id, K) */
+    private Integer partitionNo;
+
+    /** 已提交块的最大订单 id */
+    private Long lastId;
+
+    /** 分区是否已完整跑完 */
+    private Boolean done;
+
+    private Date createTime;
+    private Date updateTime;
+}
@@ -22,12 +22,18 @@ public class TbOrderRefund {
     /** 淘宝/联盟侧 tradeId（对应 orders.ds_order_sn） */
     private String tradeId;
 
+    /** 证据来源：ORDER（订单同步）/ REFUND（退款报表同步），与 tradeId 共同唯一 */
+    private String source;
+
     /** 本站 orderSn（可选，便于反查） */
     private String orderSn;
 
     /** 原始 JSON（字符串） */
     private String rawJson;
 
+    /** rawJson 的 MD5：证据未变化时跳过重写 */
+    private String rawHash;
+
     private Date createTime;
     private Date updateTime;
 }
@@ -0,0 +1,45 @@
+package com.nei10u.tip.model;
+
+import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.annotation.TableId;
+import com.baomidou.mybatisplus.annotation.TableName;
+import lombok.Data;
+
+import java.util.Date;
+
+/**
+ * TB 退款补偿按日同步状态。
+ *
+ * 对应表：tb_refund_day_state
+ */
+@Data
+@TableName("tb_refund_day_state")
+public class TbRefundDayState {
+
+    @TableId(value = "id", type = IdType.AUTO)
+    private Long id;
+
+    /** 退款接口 biz_type */
+    private Long bizType;
+
+    /** 报表日（search_option.start_time 所在日） */
+    private Date syncDay;
+
+    /** 最近一次完整同步时间 */
+    private Date lastSyncTime;
+
+    /** 最近一次同步的报表行数 */
+    private Integer rowCount;
+
+    /** 当日报表内容摘要（见 TbRefundSyncService.TbRefundDayResult#contentHash） */
+    private String contentHash;
+
+    /** 连续内容未变化的同步次数 */
+    private Integer stableRuns;
+
+    /** 冷数据：内容稳定达到阈值，仅按天回访 */
+    private Boolean cold;
+
+    private Date createTime;
+    private Date updateTime;
+}
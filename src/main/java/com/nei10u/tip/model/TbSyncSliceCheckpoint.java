@@ -0,0 +1,33 @@
+package com.nei10u.tip.model;
+
+import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.annotation.TableId;
+import com.baomidou.mybatisplus.annotation.TableName;
+import lombok.Data;
+
+import java.util.Date;
+
+/**
+ * TB 回溯同步切片断点（用于崩溃后续跑，避免整轮重来）。
+ *
+ * 对应表：tb_sync_slice_checkpoint
+ */
+@Data
+@TableName("tb_sync_slice_checkpoint")
+public class TbSyncSliceCheckpoint {
+
+    @TableId(value = "id", type = IdType.AUTO)
+    private Long id;
+
+    /** 运行批次 key（如 DAY:2025-01-01），同一批次内按切片去重 */
+    private String runKey;
+
+    /** 切片起点（切片终点 = 起点 + stepMinutes） */
+    private Date sliceStart;
+
+    /** 切片内同步落库的订单数 */
+    private Integer orderCount;
+
+    private Date createTime;
+    private Date updateTime;
+}
@@ -0,0 +1,32 @@
+package com.nei10u.tip.model;
+
+import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.annotation.TableId;
+import com.baomidou.mybatisplus.annotation.TableName;
+import lombok.Data;
+
+import java.util.Date;
+
+/**
+ * TB 增量同步高水位（按 orderScene + TbSyncType 维度）。
+ *
+ * 对应表：tb_sync_watermark
+ */
+@Data
+@TableName("tb_sync_watermark")
+public class TbSyncWatermark {
+
+    @TableId(value = "id", type = IdType.AUTO)
+    private Long id;
+
+    /** 1:所有订单，2:渠道订单，3:会员运营订单 */
+    private Long orderScene;
+
+    /** {@link com.nei10u.tip.ordersync.tb.TbSyncType#name()} */
+    private String syncType;
+
+    /** 已成功同步并提交的 tk_modified_time 上界（queryType=4 的查询窗口终点） */
+    private Date watermark;
+
+    private Date updateTime;
+}
@@ -0,0 +1,152 @@
+package com.nei10u.tip.ordersync;
+
+import com.nei10u.tip.model.Order;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * 订单批量导入：PostgreSQL COPY 写入 orders_ingest_staging（UNLOGGED 暂存表）。
+ * <p>
+ * - 使用当前事务绑定的连接（{@link DataSourceUtils}），与随后的合并/清理处于同一事务
+ * - CSV 格式：NULL 为空字段，字符串一律加引号（空串与 NULL 可区分）
+ * - 列顺序与 OrderMapper.xml 中 orderUpsertColumns 一致；合并由 OrderMapper.mergeIngestBatch 完成
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class OrderCopyIngestor {
+
+    private static final String COPY_SQL = "COPY orders_ingest_staging (batch_id, "
+            + "order_sn, ds_order_sn, order_title, img, user_id, sid, relation_id, special_id, adzone_id, type_no, type_name, "
+            + "union_platform, order_price, pay_price, share_rate, share_fee, credited_fee, "
+            + "gross_share_fee, base_deduction_rate, base_deduction_fee, "
+            + "platform_profit_rate, platform_profit_fee, user_discount, order_discount, order_status, "
+            + "order_real_status, refund_status, order_lock, punish_reason, "
+            + "status_content, create_time, pay_time, earn_time, modify_time, pay_month, estimate_date, update_time, "
+            + "fingerprint) FROM STDIN WITH (FORMAT csv)";
+
+    /** 单次 writeToCopy 的缓冲上限 */
+    private static final int FLUSH_BYTES = 256 * 1024;
+
+    private final DataSource dataSource;
+
+    /**
+     * 将一批订单 COPY 进暂存表。
+     *
+     * @return 写入行数
+     */
+    public long copy(String batchId, List<Order> orders) throws SQLException {
+        if (orders == null || orders.isEmpty()) return 0;
+
+        Connection conn = DataSourceUtils.getConnection(dataSource);
+        CopyIn copyIn = null;
+        try {
+            copyIn = conn.unwrap(PGConnection.class).getCopyAPI().copyIn(COPY_SQL);
+            StringBuilder sb = new StringBuilder(FLUSH_BYTES + 4096);
+            Date now = new Date();
+            for (Order o : orders) {
+                appendRow(sb, batchId, o, now);
+                if (sb.length() >= FLUSH_BYTES) {
+                    write(copyIn, sb);
+                }
+            }
+            write(copyIn, sb);
+            return copyIn.endCopy();
+        } finally {
+            if (copyIn != null && copyIn.isActive()) {
+                try {
+                    copyIn.cancelCopy();
+                } catch (SQLException e) {
+                    log.warn("Cancel COPY orders_ingest_staging failed: batchId={}", batchId, e);
+                }
+            }
+            DataSourceUtils.releaseConnection(conn, dataSource);
+        }
+    }
+
+    private static void write(CopyIn copyIn, StringBuilder sb) throws SQLException {
+        if (sb.isEmpty()) return;
+        byte[] bytes = sb.toString().getBytes(StandardCharsets.UTF_8);
+        copyIn.writeToCopy(bytes, 0, bytes.length);
+        sb.setLength(0);
+    }
+
+    private static void appendRow(StringBuilder sb, String batchId, Order o, Date now) {
+        str(sb, batchId);
+        str(sb.append(','), o.getOrderSn());
+        str(sb.append(','), o.getDsOrderSn());
+        str(sb.append(','), o.getOrderTitle());
+        str(sb.append(','), o.getImg());
+        val(sb.append(','), o.getUserId());
+        str(sb.append(','), o.getSid());
+        val(sb.append(','), o.getRelationId());
+        val(sb.append(','), o.getSpecialId());
+        val(sb.append(','), o.getAdZoneId());
+        val(sb.append(','), o.getTypeNo());
+        str(sb.append(','), o.getTypeName());
+        str(sb.append(','), o.getUnionPlatform());
+        num(sb.append(','), o.getOrderPrice());
+        num(sb.append(','), o.getPayPrice());
+        num(sb.append(','), o.getShareRate());
+        num(sb.append(','), o.getShareFee());
+        num(sb.append(','), o.getCreditedFee());
+        num(sb.append(','), o.getGrossShareFee());
+        num(sb.append(','), o.getBaseDeductionRate());
+        num(sb.append(','), o.getBaseDeductionFee());
+        num(sb.append(','), o.getPlatformProfitRate());
+        num(sb.append(','), o.getPlatformProfitFee());
+        num(sb.append(','), o.getUserDiscount());
+        num(sb.append(','), o.getOrderDiscount());
+        val(sb.append(','), o.getOrderStatus());
+        val(sb.append(','), o.getOrderRealStatus());
+        val(sb.append(','), o.getRefundStatus());
+        val(sb.append(','), o.getOrderLock());
+        str(sb.append(','), o.getPunishReason());
+        str(sb.append(','), o.getStatusContent());
+        time(sb.append(','), o.getCreateTime() != null ? o.getCreateTime() : now);
+        time(sb.append(','), o.getPayTime());
+        time(sb.append(','), o.getEarnTime());
+        time(sb.append(','), o.getModifyTime());
+        str(sb.append(','), o.getPayMonth());
+        str(sb.append(','), o.getEstimateDate());
+        time(sb.append(','), o.getUpdateTime() != null ? o.getUpdateTime() : now);
+        str(sb.append(','), o.getFingerprint());
+        sb.append('\n');
+    }
+
+    private static void str(StringBuilder sb, String v) {
+        if (v == null) return;
+        sb.append('"');
+        for (int i = 0; i < v.length(); i++) {
+            char c = v.charAt(i);
+            if (c == '"') sb.append('"');
+            sb.append(c);
+        }
+        sb.append('"');
+    }
+
+    private static void val(StringBuilder sb, Object v) {
+        if (v != null) sb.append(v);
+    }
+
+    private static void num(StringBuilder sb, Double v) {
+        if (v != null) sb.append(BigDecimal.valueOf(v).toPlainString());
+    }
+
+    private static void time(StringBuilder sb, Date v) {
+        if (v != null) sb.append(new Timestamp(v.getTime()));
+    }
+}
@@ -0,0 +1,200 @@
+package com.nei10u.tip.ordersync;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.nei10u.tip.mapper.UserMapper;
+import com.nei10u.tip.model.Order;
+import com.nei10u.tip.model.User;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.StringUtils;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * 订单归属用户批量解析（替代逐单逐键的单行查询）。
+ * <p>
+ * 解析口径与原逐单实现一致，按顺序命中即止：
+ * 1) relationId -> users.relation_id
+ * 2) specialId  -> users.special_id
+ * 3) sid 为数字：先当 relation_id，再当 special_id
+ * 4) sid 非数字：依次 pdd_pid / jd_auth_id / union_id
+ * <p>
+ * 实现：
+ * - 先收集整页订单的候选键，未命中本地缓存的键按类型各发一条 IN 查询，再在内存中按上述顺序解析
+ * - 本地缓存 key -> userId（含“无此用户”的负缓存），有界 + 写后过期
+ * - 用户绑定/解绑渠道 ID 时须调用 {@link #invalidateUserAfterCommit}，否则在过期前可能沿用旧归属
+ */
+@Slf4j
+@Component
+public class OrderUserResolver {
+
+    /** 负缓存标记：该键当前无对应用户 */
+    private static final Long NONE = 0L;
+
+    private static final String REL = "rel:";
+    private static final String SPC = "spc:";
+    private static final String PDD = "pdd:";
+    private static final String JD = "jd:";
+    private static final String UNION = "union:";
+
+    private final UserMapper userMapper;
+    private final Cache<String, Long> cache;
+
+    public OrderUserResolver(UserMapper userMapper,
+                             @Value("${app.order.user-resolver.cache-max-size:100000}") long cacheMaxSize,
+                             @Value("${app.order.user-resolver.cache-ttl-minutes:10}") long cacheTtlMinutes) {
+        this.userMapper = userMapper;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(Math.max(1, cacheMaxSize))
+                .expireAfterWrite(Duration.ofMinutes(Math.max(1, cacheTtlMinutes)))
+                .build();
+    }
+
+    /**
+     * 批量解析订单归属。
+     *
+     * @return orderSn -> userId；未解析到的订单不在结果中
+     */
+    public Map<String, Long> resolve(Collection<Order> orders) {
+        if (orders == null || orders.isEmpty()) return Collections.emptyMap();
+
+        Set<Long> relationIds = new HashSet<>();
+        Set<Long> specialIds = new HashSet<>();
+        Set<String> strKeys = new HashSet<>();
+        for (Order o : orders) {
+            if (o == null) continue;
+            if (o.getRelationId() != null) relationIds.add(o.getRelationId());
+            if (o.getSpecialId() != null) specialIds.add(o.getSpecialId());
+            if (!StringUtils.hasText(o.getSid())) continue;
+            Long numericSid = parseLong(o.getSid());
+            if (numericSid != null) {
+                relationIds.add(numericSid);
+                specialIds.add(numericSid);
+            } else {
+                strKeys.add(o.getSid());
+            }
+        }
+
+        Map<String, Long> known = new HashMap<>();
+        load(known, REL, relationIds, userMapper::listIdsByRelationIds, User::getRelationId);
+        load(known, SPC, specialIds, userMapper::listIdsBySpecialIds, User::getSpecialId);
+        load(known, PDD, strKeys, userMapper::listIdsByPddPids, User::getPddPid);
+        load(known, JD, strKeys, userMapper::listIdsByJdAuthIds, User::getJdAuthId);
+        load(known, UNION, strKeys, userMapper::listIdsByUnionIds, User::getUnionId);
+
+        Map<String, Long> result = new HashMap<>();
+        for (Order o : orders) {
+            if (o == null) continue;
+            Long userId = resolveOne(o, known);
+            if (userId != null) result.put(o.getOrderSn(), userId);
+        }
+        return result;
+    }
+
+    /**
+     * 用户渠道 ID 变更后失效其相关缓存：
+     * - keys：变更前后涉及的渠道 ID（新 ID 可能命中负缓存）
+     * - userId：移除仍指向该用户的旧键
+     */
+    public void invalidateUser(Long userId, Object... keys) {
+        if (keys != null) {
+            for (Object k : keys) {
+                if (k == null) continue;
+                String v = String.valueOf(k);
+                if (!StringUtils.hasText(v)) continue;
+                cache.invalidateAll(List.of(REL + v, SPC + v, PDD + v, JD + v, UNION + v));
+            }
+        }
+        if (userId != null) {
+            cache.asMap().values().removeIf(userId::equals);
+        }
+    }
+
+    /**
+     * 同 {@link #invalidateUser}，处于事务中时注册到提交之后执行（否则立即执行）：
+     * 提交前失效的话，并发同步可能在提交前从库中读回旧绑定并缓存到过期。
+     */
+    public void invalidateUserAfterCommit(Long userId, Object... keys) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    invalidateUser(userId, keys);
+                }
+            });
+        } else {
+            invalidateUser(userId, keys);
+        }
+    }
+
+    private Long resolveOne(Order o, Map<String, Long> known) {
+        Long userId;
+        if (o.getRelationId() != null && (userId = hit(known, REL + o.getRelationId())) != null) return userId;
+        if (o.getSpecialId() != null && (userId = hit(known, SPC + o.getSpecialId())) != null) return userId;
+
+        if (!StringUtils.hasText(o.getSid())) return null;
+        Long numericSid = parseLong(o.getSid());
+        if (numericSid != null) {
+            if ((userId = hit(known, REL + numericSid)) != null) return userId;
+            return hit(known, SPC + numericSid);
+        }
+        if ((userId = hit(known, PDD + o.getSid())) != null) return userId;
+        if ((userId = hit(known, JD + o.getSid())) != null) return userId;
+        return hit(known, UNION + o.getSid());
+    }
+
+    private static Long hit(Map<String, Long> known, String key) {
+        Long v = known.get(key);
+        return (v == null || NONE.equals(v)) ? null : v;
+    }
+
+    /**
+     * 先查本地缓存，未命中的键一次 IN 查询补齐；同一键对应多用户时取 id 最小者（SQL 已按 id 升序）。
+     */
+    private <K> void load(Map<String, Long> known, String prefix, Set<K> keys,
+                          Function<Collection<K>, List<User>> query, Function<User, K> keyOf) {
+        if (keys.isEmpty()) return;
+
+        List<K> misses = new ArrayList<>();
+        for (K k : keys) {
+            Long cached = cache.getIfPresent(prefix + k);
+            if (cached != null) {
+                known.put(prefix + k, cached);
+            } else {
+                misses.add(k);
+            }
+        }
+        if (misses.isEmpty()) return;
+
+        Map<String, Long> loaded = new HashMap<>();
+        try {
+            for (User u : query.apply(misses)) {
+                K k = keyOf.apply(u);
+                if (k != null && u.getId() != null) loaded.putIfAbsent(prefix + k, u.getId());
+            }
+        } catch (Exception e) {
+            // 查询失败不写负缓存，本批这些键按未解析处理（upsert 时保留历史 userId）
+            log.warn("Resolve order users failed: keyType={}, keys={}", prefix, misses.size(), e);
+            return;
+        }
+        for (K k : misses) {
+            Long userId = loaded.getOrDefault(prefix + k, NONE);
+            known.put(prefix + k, userId);
+            cache.put(prefix + k, userId);
+        }
+    }
+
+    private static Long parseLong(String s) {
+        try {
+            return Long.parseLong(s);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.nei10u.tip.ordersync.tb;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * TB 订单回溯切片执行参数（application.yml: app.tb.order.back-fill.*）。
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.tb.order.back-fill")
+public class TbBackFillProperties {
+
+    /**
+     * 并发执行切片的线程数；实际吞吐仍受 app.tb.order.qps 令牌桶约束，
+     * 线程数只需覆盖“接口耗时 × qps”即可，过大只会排队等令牌
+     */
+    private int poolSize = 4;
+
+    /**
+     * 是否启用切片断点（崩溃/重启后同一批次跳过已完成切片）
+     */
+    private boolean checkpointEnabled = true;
+
+    /**
+     * 断点保留天数（过期断点在每次运行开始时清理）
+     */
+    private int checkpointRetainDays = 7;
+}
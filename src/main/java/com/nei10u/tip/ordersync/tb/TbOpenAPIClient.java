@@ -1,5 +1,6 @@
 package com.nei10u.tip.ordersync.tb;
 
+import com.nei10u.tip.http.UpstreamGuard;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
@@ -24,6 +25,8 @@ public class TbOpenAPIClient {
 
     private final RestTemplate restTemplate;
 
+    private final UpstreamGuard upstreamGuard;
+
     @Value("${app.tb.gateway:https://eco.taobao.com/router/rest}")
     private String gateway;
 
@@ -63,7 +66,8 @@ public class TbOpenAPIClient {
         MultiValueMap<String, String> form = new LinkedMultiValueMap<>();
         params.forEach(form::add);
 
-        return restTemplate.postForObject(gateway, form, String.class);
+        // 订单/退款数据不使用兜底响应：熔断时直接失败，由上层按未完成处理
+        return upstreamGuard.call("tb", null, () -> restTemplate.postForObject(gateway, form, String.class));
     }
 
     public String tbkOrderDetailsGet(Map<String, String> bizParams) {
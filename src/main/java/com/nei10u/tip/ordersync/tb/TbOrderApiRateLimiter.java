@@ -0,0 +1,69 @@
+package com.nei10u.tip.ordersync.tb;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * taobao.tbk.order.details.get 调用限流（令牌桶）。
+ * <p>
+ * 说明：
+ * - 淘宝开放平台按 appKey 维度限制该接口 QPS，并发回溯时必须在进程内统一限流，否则会触发 isv.access-limit
+ * - 令牌允许“透支”：acquire 先扣减再按欠额睡眠，保证多线程下整体速率不超过 qps
+ * - qps <= 0 表示不限流
+ */
+@Slf4j
+@Component
+public class TbOrderApiRateLimiter {
+
+    private final double qps;
+    private final double capacity;
+
+    private double tokens;
+    private long lastRefillNanos;
+
+    public TbOrderApiRateLimiter(@Value("${app.tb.order.qps:10}") double qps,
+                                 @Value("${app.tb.order.qps-burst:0}") double burst) {
+        this.qps = qps;
+        // burst 未配置时默认允许 1 秒的突发量
+        this.capacity = burst > 0 ? burst : Math.max(1.0d, qps);
+        this.tokens = this.capacity;
+        this.lastRefillNanos = System.nanoTime();
+    }
+
+    /**
+     * 获取一个令牌；令牌不足时阻塞到可用为止。
+     *
+     * @return 是否成功获取（线程被中断时返回 false）
+     */
+    public boolean acquire() {
+        if (qps <= 0) return true;
+
+        long sleepNanos;
+        synchronized (this) {
+            long now = System.nanoTime();
+            double refill = (now - lastRefillNanos) / 1_000_000_000.0d * qps;
+            tokens = Math.min(capacity, tokens + refill);
+            lastRefillNanos = now;
+
+            tokens -= 1.0d;
+            sleepNanos = tokens >= 0 ? 0L : (long) (-tokens / qps * 1_000_000_000L);
+        }
+
+        if (sleepNanos <= 0) return true;
+        try {
+            TimeUnit.NANOSECONDS.sleep(sleepNanos);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("TB order api rate limiter interrupted");
+            return false;
+        }
+    }
+
+    public double getQps() {
+        return qps;
+    }
+}
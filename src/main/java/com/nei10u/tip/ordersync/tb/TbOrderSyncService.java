@@ -2,11 +2,13 @@ package com.nei10u.tip.ordersync.tb;
 
 import com.alibaba.fastjson2.JSONArray;
 import com.alibaba.fastjson2.JSONObject;
-import com.nei10u.tip.mapper.TbOrderRefundMapper;
+import com.nei10u.tip.mapper.TbSyncWatermarkMapper;
 import com.nei10u.tip.model.Order;
 import com.nei10u.tip.model.TbOrderRefund;
+import com.nei10u.tip.ordersync.util.OrderFingerprintUtil;
 import com.nei10u.tip.ordersync.util.OrderSyncParseUtil;
 import com.nei10u.tip.service.OrderService;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
@@ -18,6 +20,9 @@ import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.time.temporal.ChronoUnit;
 import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * 淘宝订单同步（直连淘宝开放平台）。
@@ -34,10 +39,27 @@ public class TbOrderSyncService {
 
     private final TbOpenApiService tbOpenApiService;
     private final OrderService orderService;
-    private final TbOrderRefundMapper tbOrderRefundMapper;
+    private final TbRefundEvidenceWriter tbRefundEvidenceWriter;
+    private final TbOrderApiRateLimiter tbOrderApiRateLimiter;
+    private final TbSyncWatermarkMapper tbSyncWatermarkMapper;
 
     private static final DateTimeFormatter TIME_FMT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
 
+    /** 单个时间窗最多拉取页数（安全熔断） */
+    private static final int MAX_PAGES = 5000;
+
+    /** 拉取/映射阶段线程（每个进行中的时间窗占用 2 个，随同步并发度伸缩） */
+    private final ExecutorService pipelineExecutor = Executors.newCachedThreadPool(new ThreadFactory() {
+        private final AtomicInteger seq = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread t = new Thread(r, "tb-sync-pipeline-" + seq.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        }
+    });
+
     /**
      * 淘宝订单查询接口通常限制单次查询时间窗（常见为 30 分钟级别）。
      * 这里做“硬保护”，避免被动触发 API 限制导致漏单或错误重试风暴。
@@ -55,6 +77,40 @@ public class TbOrderSyncService {
     @Value("${app.tb.order.fields:trade_id,tk_status,refund_tag,pub_share_fee,pub_share_pre_fee,adzone_id,relation_id,special_id,tk_paid_time,tk_create_time,tk_earning_time,tk_modified_time,item_title,item_img,alipay_total_price,pay_price,deposit_price,item_id}")
     private String fieldsCsv;
 
+    /** 增量同步：水位回退重叠分钟数（覆盖淘宝侧 tk_modified_time 落地延迟） */
+    @Value("${app.tb.order.watermark.overlap-minutes:2}")
+    private int watermarkOverlapMinutes;
+
+    /** 增量同步：首次运行（无水位）回看分钟数 */
+    @Value("${app.tb.order.watermark.initial-lookback-minutes:20}")
+    private int watermarkInitialLookbackMinutes;
+
+    /** 增量同步：单次最多追赶的分钟数（停机积压过久时由日补偿兜底） */
+    @Value("${app.tb.order.watermark.max-catch-up-minutes:180}")
+    private int watermarkMaxCatchUpMinutes;
+
+    /** 分页流水线：拉取/映射/落库重叠执行；false 时退回逐页串行 */
+    @Value("${app.tb.order.pipeline.enabled:true}")
+    private boolean pipelineEnabled;
+
+    /** 流水线阶段间队列容量（页数）；落库落后时超过该深度即阻塞拉取 */
+    @Value("${app.tb.order.pipeline.queue-capacity:2}")
+    private int pipelineQueueCapacity;
+
+    /**
+     * 大批量导入（首次接入/长窗口回填）：单次同步累计超过 threshold-rows 后改走 COPY 暂存表合并；
+     * 回溯切片（TbSliceExecutor）按工作线程整轮累计，不按单个切片
+     */
+    @Value("${app.tb.order.bulk-ingest.enabled:true}")
+    private boolean bulkIngestEnabled;
+
+    @Value("${app.tb.order.bulk-ingest.threshold-rows:5000}")
+    private int bulkIngestThresholdRows;
+
+    /** COPY 导入每批行数（一批一个事务） */
+    @Value("${app.tb.order.bulk-ingest.batch-rows:5000}")
+    private int bulkIngestBatchRows;
+
     public int syncRange(LocalDateTime start, LocalDateTime end, TbSyncType syncType) {
         return syncRange(start, end, 1L, syncType);
     }
@@ -63,7 +119,82 @@ public class TbOrderSyncService {
      * @param orderScene 口径：筛选订单类型，1:所有订单，2:渠道订单，3:会员运营订单，默认为1
      */
     public int syncRange(LocalDateTime start, LocalDateTime end, long orderScene, TbSyncType syncType) {
-        if (start == null || end == null) return 0;
+        return syncRangeResult(start, end, orderScene, syncType).count();
+    }
+
+    /**
+     * 同 {@link #syncRange(LocalDateTime, LocalDateTime, long, TbSyncType)}，额外返回窗口是否完整同步
+     * （任一页接口失败、超页数、被熔断/舱壁拒绝时 complete=false），供断点续跑判断是否可以写 checkpoint。
+     */
+    public TbSyncResult syncRangeResult(LocalDateTime start, LocalDateTime end, long orderScene, TbSyncType syncType) {
+        IngestBuffer buffer = new IngestBuffer();
+        TbSyncResult r = syncWindow(start, end, orderScene, syncType, buffer);
+        return new TbSyncResult(r.count() + buffer.finish(), r.complete());
+    }
+
+    /**
+     * 使用调用方持有的落库缓冲同步一个时间窗（不 finish）：回溯切片执行器按工作线程跨切片共用一个缓冲，
+     * 使 COPY 阈值按整轮回填的行数判断。返回时窗口内的行可能仍在缓冲中未提交，见 {@link IngestBuffer}。
+     */
+    TbSyncResult syncRangeResult(LocalDateTime start, LocalDateTime end, long orderScene, TbSyncType syncType,
+                                 IngestBuffer buffer) {
+        return syncWindow(start, end, orderScene, syncType, buffer);
+    }
+
+    /**
+     * 新建落库缓冲（供 {@link #syncRangeResult(LocalDateTime, LocalDateTime, long, TbSyncType, IngestBuffer)} 使用）。
+     */
+    IngestBuffer newIngestBuffer() {
+        return new IngestBuffer();
+    }
+
+    /**
+     * 单个时间窗的同步结果。
+     *
+     * @param count    落库订单数
+     * @param complete 窗口内所有分页是否都拉取并落库成功（任一页接口失败即为 false）
+     */
+    public record TbSyncResult(int count, boolean complete) {
+    }
+
+    /**
+     * 基于高水位的增量同步（queryType=4，按 tk_modified_time 查询）：
+     * - 窗口起点 = 上次成功水位 - overlap（覆盖淘宝侧更新延迟）；无水位时回看 initial-lookback 分钟
+     * - 窗口终点 = now；超过 max-catch-up 的积压只追最近一段，更早的交给日补偿任务
+     * - 窗口全部分页成功落库（insertOrUpdateOrder / 批量导入事务均已提交）后才把水位推进到窗口终点
+     */
+    public TbSyncResult syncSinceWatermark(long orderScene, TbSyncType syncType) {
+        TbSyncType type = (syncType == null) ? TbSyncType.MINUTE : syncType;
+        LocalDateTime end = LocalDateTime.now().withNano(0);
+
+        LocalDateTime watermark = OrderSyncParseUtil.toLocalDateTime(
+                tbSyncWatermarkMapper.getWatermark(orderScene, type.name()));
+        LocalDateTime start = (watermark == null)
+                ? end.minusMinutes(Math.max(1, watermarkInitialLookbackMinutes))
+                : watermark.minusMinutes(Math.max(0, watermarkOverlapMinutes));
+
+        LocalDateTime floor = end.minusMinutes(Math.max(1, watermarkMaxCatchUpMinutes));
+        if (start.isBefore(floor)) {
+            log.warn("TB watermark lag too large, clamp window: scene={}, type={}, watermark={}, clampTo={}",
+                    orderScene, type, watermark, floor);
+            start = floor;
+        }
+
+        IngestBuffer buffer = new IngestBuffer();
+        TbSyncResult windowResult = syncWindow(start, end, orderScene, type, buffer);
+        TbSyncResult result = new TbSyncResult(windowResult.count() + buffer.finish(), windowResult.complete());
+        if (result.complete()) {
+            tbSyncWatermarkMapper.advance(orderScene, type.name(), OrderSyncParseUtil.toDate(end));
+        } else {
+            log.warn("TB incremental sync incomplete, watermark kept: scene={}, type={}, watermark={}, window={}~{}",
+                    orderScene, type, watermark, start, end);
+        }
+        return result;
+    }
+
+    private TbSyncResult syncWindow(LocalDateTime start, LocalDateTime end, long orderScene, TbSyncType syncType,
+                                    IngestBuffer buffer) {
+        if (start == null || end == null) return new TbSyncResult(0, true);
         TbSyncType type = (syncType == null) ? TbSyncType.DAY : syncType;
 
         // 保护：按官方常见限制，将长窗口切分成多个小窗口执行
@@ -72,46 +203,252 @@ public class TbOrderSyncService {
         long totalMin = ChronoUnit.MINUTES.between(start, end);
         if (totalMin > maxMin) {
             int sum = 0;
+            boolean complete = true;
             LocalDateTime cursor = start;
             while (cursor.isBefore(end)) {
                 LocalDateTime next = cursor.plusMinutes(maxMin);
                 if (next.isAfter(end)) next = end;
-                sum += syncRange(cursor, next, orderScene, type);
+                TbSyncResult r = syncWindow(cursor, next, orderScene, type, buffer);
+                sum += r.count();
+                complete &= r.complete();
                 cursor = next;
             }
-            return sum;
+            return new TbSyncResult(sum, complete);
         }
 
         String startStr = start.format(TIME_FMT);
         String endStr = end.format(TIME_FMT);
+        return pipelineEnabled
+                ? syncPagesPipelined(startStr, endStr, orderScene, type, buffer)
+                : syncPagesSerial(startStr, endStr, orderScene, type, buffer);
+    }
 
+    /**
+     * 串行：拉取 -> 解析/映射 -> 落库，逐页执行（pipeline.enabled=false 时使用）。
+     */
+    private TbSyncResult syncPagesSerial(String startStr, String endStr, long orderScene, TbSyncType type,
+                                         IngestBuffer buffer) {
         int total = 0;
         long pageNo = 1;
         String positionIndex = null;
-        boolean hasNext = true;
 
         while (true) {
             JSONObject resp = callTb(startStr, endStr, orderScene, pageNo, positionIndex, type);
-            if (resp == null) break;
+            if (resp == null) return new TbSyncResult(total, false);
 
-            TbPage page = parsePage(resp);
-            hasNext = page.hasNext;
-            List<Order> orders = page.orders;
+            TbRawPage page = parseRawPage(resp);
+            List<Order> orders = mapPage(page);
             if (!CollectionUtils.isEmpty(orders)) {
-                int count = orderService.insertOrUpdateOrder(orders);
-                total += count;
+                total += buffer.accept(orders);
             }
 
-            if (!hasNext) break;
-            positionIndex = page.positionIndex;
+            if (!page.hasNext()) break;
+            positionIndex = page.positionIndex();
             pageNo++;
-            if (pageNo > 5000) { // 安全熔断，避免死循环
+            if (pageNo > MAX_PAGES) { // 安全熔断，避免死循环
                 log.warn("TB sync abort: too many pages, start={}, end={}", startStr, endStr);
-                break;
+                return new TbSyncResult(total, false);
             }
         }
 
-        return total;
+        return new TbSyncResult(total, true);
+    }
+
+    /**
+     * 流水线：拉取、解析/映射、落库三段通过有界队列衔接：
+     * - 拉取线程：按 positionIndex 游标逐页请求（游标依赖上一页，本身仍是串行，调用频率不变，仍受限流器约束）
+     * - 映射线程：JSON -> Order（含退款证据落库）
+     * - 落库在调用线程执行（保持 insertOrUpdateOrder 的事务语义与异常传播不变）
+     * 第 N 页落库时第 N+1 页已在下载；落库跟不上时队列写满，上游阻塞形成背压。
+     * 落库异常时取消上游并原样抛出；上游失败（接口返回空、超页数）以结束标记的 complete=false 体现。
+     */
+    private TbSyncResult syncPagesPipelined(String startStr, String endStr, long orderScene, TbSyncType type,
+                                            IngestBuffer buffer) {
+        int capacity = Math.max(1, pipelineQueueCapacity);
+        BlockingQueue<StageItem<TbRawPage>> rawQueue = new ArrayBlockingQueue<>(capacity);
+        BlockingQueue<StageItem<List<Order>>> orderQueue = new ArrayBlockingQueue<>(capacity);
+        AtomicBoolean cancelled = new AtomicBoolean(false);
+
+        // 1) fetch
+        pipelineExecutor.execute(() -> {
+            boolean complete = false;
+            try {
+                long pageNo = 1;
+                String positionIndex = null;
+                while (!cancelled.get()) {
+                    JSONObject resp = callTb(startStr, endStr, orderScene, pageNo, positionIndex, type);
+                    if (resp == null) break;
+
+                    TbRawPage page = parseRawPage(resp);
+                    if (!offer(rawQueue, StageItem.of(page), cancelled)) break;
+
+                    if (!page.hasNext()) {
+                        complete = true;
+                        break;
+                    }
+                    positionIndex = page.positionIndex();
+                    pageNo++;
+                    if (pageNo > MAX_PAGES) { // 安全熔断，避免死循环
+                        log.warn("TB sync abort: too many pages, start={}, end={}", startStr, endStr);
+                        break;
+                    }
+                }
+            } catch (Exception e) {
+                log.error("TB sync fetch stage failed: start={}, end={}", startStr, endStr, e);
+            } finally {
+                offer(rawQueue, StageItem.end(complete), cancelled);
+            }
+        });
+
+        // 2) parse / map
+        pipelineExecutor.execute(() -> {
+            boolean complete = false;
+            try {
+                while (true) {
+                    StageItem<TbRawPage> in = poll(rawQueue, cancelled);
+                    if (in == null) return;
+                    if (in.end()) {
+                        complete = in.complete();
+                        break;
+                    }
+                    if (!offer(orderQueue, StageItem.of(mapPage(in.payload())), cancelled)) return;
+                }
+            } catch (Exception e) {
+                // 结束标记 complete=false 交给落库阶段收尾，落库阶段结束后统一取消拉取
+                log.error("TB sync map stage failed: start={}, end={}", startStr, endStr, e);
+            } finally {
+                offer(orderQueue, StageItem.end(complete), cancelled);
+            }
+        });
+
+        // 3) persist（调用线程）
+        int total = 0;
+        try {
+            while (true) {
+                StageItem<List<Order>> item = orderQueue.poll(1, TimeUnit.SECONDS);
+                if (item == null) continue;
+                if (item.end()) return new TbSyncResult(total, item.complete());
+                if (!CollectionUtils.isEmpty(item.payload())) {
+                    total += buffer.accept(item.payload());
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return new TbSyncResult(total, false);
+        } finally {
+            cancelled.set(true);
+        }
+    }
+
+    /**
+     * 一次同步（syncRange / syncSinceWatermark，或回溯切片执行器的一个工作线程整轮）的落库缓冲：
+     * - 累计行数未超过 threshold-rows 时逐页 insertOrUpdateOrder（常规增量的行为与延迟不变）
+     * - 超过后转为攒批，每满 batch-rows 行走一次 bulkInsertOrUpdateOrder（COPY + 合并）
+     * - 调用方必须在同步结束时调用 {@link #finish()} 落库剩余行，之后才能推进水位 / 写断点
+     * - 跨多个窗口共用时，窗口的行在 {@link #hasPending()} 为 false 或 {@link #flushCount()} 增加后才算已提交
+     * 仅在调用线程使用，非线程安全。
+     */
+    final class IngestBuffer {
+        private final List<Order> pending = new ArrayList<>();
+        private long seen;
+        private long rows;
+        private long flushes;
+
+        int accept(List<Order> orders) {
+            rows += orders.size();
+            if (!bulkIngestEnabled) return orderService.insertOrUpdateOrder(orders);
+
+            seen += orders.size();
+            if (pending.isEmpty() && seen <= Math.max(0, bulkIngestThresholdRows)) {
+                return orderService.insertOrUpdateOrder(orders);
+            }
+            pending.addAll(orders);
+            return pending.size() >= Math.max(1, bulkIngestBatchRows) ? flush() : 0;
+        }
+
+        int finish() {
+            return pending.isEmpty() ? 0 : flush();
+        }
+
+        /**
+         * 丢弃未提交的行（落库异常后调用，避免同一批失败数据被反复重试）。
+         */
+        void discard() {
+            pending.clear();
+        }
+
+        boolean hasPending() {
+            return !pending.isEmpty();
+        }
+
+        /**
+         * 已成功提交的 COPY 批次数：某窗口结束后该值增加，说明其缓冲中的行已随该批提交
+         */
+        long flushCount() {
+            return flushes;
+        }
+
+        /**
+         * 累计接收的订单行数
+         */
+        long rows() {
+            return rows;
+        }
+
+        private int flush() {
+            List<Order> batch = new ArrayList<>(pending);
+            pending.clear();
+            int count = orderService.bulkInsertOrUpdateOrder(batch);
+            flushes++;
+            return count;
+        }
+    }
+
+    /**
+     * 流水线阶段间传递的元素；end=true 为结束标记，complete 表示上游是否完整跑完。
+     */
+    private record StageItem<T>(T payload, boolean end, boolean complete) {
+        static <T> StageItem<T> of(T payload) {
+            return new StageItem<>(payload, false, false);
+        }
+
+        static <T> StageItem<T> end(boolean complete) {
+            return new StageItem<>(null, true, complete);
+        }
+    }
+
+    /**
+     * 阻塞写入（背压）；下游已取消时返回 false。
+     */
+    private static <T> boolean offer(BlockingQueue<T> queue, T item, AtomicBoolean cancelled) {
+        try {
+            while (!cancelled.get()) {
+                if (queue.offer(item, 200, TimeUnit.MILLISECONDS)) return true;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return false;
+    }
+
+    /**
+     * 阻塞读取；已取消时返回 null。
+     */
+    private static <T> T poll(BlockingQueue<T> queue, AtomicBoolean cancelled) {
+        try {
+            while (!cancelled.get()) {
+                T item = queue.poll(200, TimeUnit.MILLISECONDS);
+                if (item != null) return item;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return null;
+    }
+
+    @PreDestroy
+    public void shutdownPipeline() {
+        pipelineExecutor.shutdownNow();
     }
 
     private JSONObject callTb(String start, String end, long orderScene, long pageNo, String positionIndex, TbSyncType syncType) {
@@ -133,6 +470,8 @@ public class TbOrderSyncService {
                 Object v = req.get(k);
                 if (v != null) biz.put(k, String.valueOf(v));
             }
+            // 统一限流：回溯切片并发执行时也不会突破接口 QPS 配额
+            if (!tbOrderApiRateLimiter.acquire()) return null;
             return tbOpenApiService.orderDetailsGet(biz);
         } catch (Exception e) {
             log.error("TB sync call failed: start={}, end={}, pageNo={}, pos={}", start, end, pageNo, positionIndex, e);
@@ -140,10 +479,13 @@ public class TbOrderSyncService {
         }
     }
 
-    private record TbPage(List<Order> orders, boolean hasNext, String positionIndex) {
+    private record TbRawPage(JSONArray list, boolean hasNext, String positionIndex) {
     }
 
-    private TbPage parsePage(JSONObject resp) {
+    /**
+     * 解析分页信息与原始订单列表（轻量，在拉取阶段完成以便尽快发起下一页请求）。
+     */
+    private TbRawPage parseRawPage(JSONObject resp) {
         // 兼容：tbk_order_details_get_response -> data -> results -> publisher_order_dto
         JSONObject root = resp.getJSONObject("tbk_order_details_get_response");
         if (root == null) root = resp;
@@ -164,19 +506,29 @@ public class TbOrderSyncService {
             if (list == null) list = data.getJSONArray("publisher_order_dto");
         }
 
+        return new TbRawPage(list, hasNext, positionIndex);
+    }
+
+    private List<Order> mapPage(TbRawPage page) {
         List<Order> mapped = new ArrayList<>();
+        List<TbOrderRefund> evidences = new ArrayList<>();
+        JSONArray list = page.list();
         if (list != null) {
             for (int i = 0; i < list.size(); i++) {
                 JSONObject o = list.getJSONObject(i);
-                Order mappedOrder = mapTbOrder(o);
+                Order mappedOrder = mapTbOrder(o, evidences);
                 if (mappedOrder != null) mapped.add(mappedOrder);
             }
         }
-
-        return new TbPage(mapped, hasNext, positionIndex);
+        // 退款证据链：整页一次多行 upsert
+        tbRefundEvidenceWriter.flush(evidences);
+        return mapped;
     }
 
-    private Order mapTbOrder(JSONObject raw) {
+    /**
+     * @param evidences 输出：refundTag=1 时追加退款证据（由调用方按页批量落库）
+     */
+    private Order mapTbOrder(JSONObject raw, List<TbOrderRefund> evidences) {
         if (raw == null) return null;
 
         String tradeId = OrderSyncParseUtil.firstNonBlank(raw, "trade_id", "tradeId");
@@ -263,21 +615,13 @@ public class TbOrderSyncService {
         }
 
         order.setUpdateTime(new Date());
+        order.setFingerprint(OrderFingerprintUtil.of(order));
 
         // 退款证据链：当 refundTag=1 时，保存原始 JSON（最小审计实现）。
         if (refundStatus == 101) {
-            try {
-                TbOrderRefund r = new TbOrderRefund();
-                r.setTradeId(tradeId);
-                r.setOrderSn(order.getOrderSn());
-                r.setRawJson(raw.toJSONString());
-                Date now = new Date();
-                r.setCreateTime(now);
-                r.setUpdateTime(now);
-                tbOrderRefundMapper.upsert(r);
-            } catch (Exception e) {
-                log.warn("Upsert tb_order_refund failed: tradeId={}", tradeId, e);
-            }
+            TbOrderRefund r = tbRefundEvidenceWriter.evidence(tradeId, TbRefundEvidenceWriter.SOURCE_ORDER,
+                    order.getOrderSn(), raw);
+            if (r != null) evidences.add(r);
         }
 
         return order;
@@ -5,14 +5,15 @@ import com.alibaba.fastjson2.JSONObject;
 import com.baomidou.mybatisplus.core.conditions.update.LambdaUpdateWrapper;
 import com.nei10u.tip.mapper.OrderMapper;
 import com.nei10u.tip.model.Order;
+import com.nei10u.tip.service.UserEarningsSummaryService;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.util.StringUtils;
 
-import java.util.Date;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.*;
 
 /**
  * TB 处罚/违规补偿（近似对齐 legacy PunishOrderSyncScheduler）：
@@ -20,6 +21,8 @@ import java.util.Map;
  * - tip-backend 这里提供一个“可运行的最小实现”：尝试调用淘宝 Open API 的 punish 接口（如无权限会失败并仅记录日志）。
  * <p>
  * 注意：不同 appKey 权限可能无法调用该接口；此时你可以替换为 DTK 侧接口实现。
+ * <p>
+ * 指标：tb.order.punish.items（处理的处罚记录数）、tb.order.punish.flipped（实际翻转为锁单的订单数）。
  */
 @Slf4j
 @Service
@@ -28,11 +31,27 @@ public class TbPunishSyncService {
 
     private final TbOpenApiService tbOpenApiService;
     private final OrderMapper orderMapper;
+    private final MeterRegistry meterRegistry;
+    private final UserEarningsSummaryService userEarningsSummaryService;
+
+    /** 批量模式：按页合并处罚锁单更新；false 时逐行更新 */
+    @Value("${app.tb.punish.batch-enabled:true}")
+    private boolean batchEnabled;
+
+    /**
+     * 单次同步结果。
+     *
+     * @param items   处理的处罚记录数
+     * @param flipped 实际由“未处罚”翻转为锁单/失效的订单数（已是同一原因与锁单状态的订单不计）
+     */
+    public record TbPunishSyncResult(int items, int flipped) {
+    }
 
-    public int syncByStartTime(String startTime, int pageNo, int pageSize) {
+    public TbPunishSyncResult syncByStartTime(String startTime, int pageNo, int pageSize) {
         int page = Math.max(1, pageNo);
         int size = Math.max(1, pageSize);
         int total = 0;
+        int flipped = 0;
 
         while (true) {
             JSONObject resp = callPunish(startTime, page, size);
@@ -41,11 +60,19 @@ public class TbPunishSyncService {
             JSONArray list = extractResults(resp);
             if (list == null || list.isEmpty()) break;
 
+            Map<String, Order> rows = new LinkedHashMap<>();
             for (int i = 0; i < list.size(); i++) {
                 JSONObject o = list.getJSONObject(i);
                 if (o == null) continue;
-                if (handleOne(o)) total++;
+                Order row = toPunishRow(o);
+                if (row == null) continue;
+                // 同页重复 tradeId 以最后一条为准
+                rows.put(row.getDsOrderSn(), row);
+                total++;
             }
+            int pageFlipped = applyPunish(rows.values());
+            if (pageFlipped > 0) userEarningsSummaryService.refreshByDsOrderSns(rows.keySet());
+            flipped += pageFlipped;
 
             if (list.size() < size) break;
             page++;
@@ -55,7 +82,9 @@ public class TbPunishSyncService {
             }
         }
 
-        return total;
+        meterRegistry.counter("tb.order.punish.items").increment(total);
+        meterRegistry.counter("tb.order.punish.flipped").increment(flipped);
+        return new TbPunishSyncResult(total, flipped);
     }
 
     private JSONObject callPunish(String startTime, int pageNo, int pageSize) {
@@ -90,30 +119,60 @@ public class TbPunishSyncService {
         return null;
     }
 
-    private boolean handleOne(JSONObject o) {
+    private Order toPunishRow(JSONObject o) {
         String tradeId = firstNonBlank(o, "tb_trade_id", "tbTradeId", "trade_id", "tradeId");
-        if (!StringUtils.hasText(tradeId)) return false;
+        if (!StringUtils.hasText(tradeId)) return null;
 
         String violationType = firstNonBlank(o, "violation_type", "violationType");
         String punishStatus = firstNonBlank(o, "punish_status", "punishStatus");
         String reason = (StringUtils.hasText(violationType) ? violationType : "punish")
                 + (StringUtils.hasText(punishStatus) ? (":" + punishStatus) : "");
 
-        try {
-            LambdaUpdateWrapper<Order> uw = new LambdaUpdateWrapper<>();
-            uw.eq(Order::getDsOrderSn, tradeId);
-            uw.set(Order::getOrderLock, 1);
-            uw.set(Order::getOrderRealStatus, 4);
-            uw.set(Order::getOrderStatus, (byte) 6);
-            uw.set(Order::getPunishReason, reason);
-            uw.set(Order::getStatusContent, "订单处罚/违规：" + reason);
-            uw.set(Order::getUpdateTime, new Date());
-            orderMapper.update(null, uw);
-            return true;
-        } catch (Exception e) {
-            log.warn("Update order punish failed: tradeId={}", tradeId, e);
-            return false;
+        Order row = new Order();
+        row.setDsOrderSn(tradeId);
+        row.setPunishReason(reason);
+        row.setStatusContent("订单处罚/违规：" + reason);
+        return row;
+    }
+
+    /**
+     * 批量模式：整页一条 UPDATE ... FROM (VALUES ...)，已是同一原因与锁单状态的订单由 SQL 过滤；
+     * 关闭批量模式（或批量语句失败）时逐行更新，过滤条件一致。
+     *
+     * @return 实际翻转状态的订单数
+     */
+    private int applyPunish(Collection<Order> rows) {
+        if (rows.isEmpty()) return 0;
+
+        if (batchEnabled) {
+            try {
+                return orderMapper.batchUpdatePunish(new ArrayList<>(rows));
+            } catch (Exception e) {
+                log.warn("Batch update order punish failed, fallback to single-row: rows={}", rows.size(), e);
+            }
+        }
+
+        int flipped = 0;
+        for (Order row : rows) {
+            try {
+                LambdaUpdateWrapper<Order> uw = new LambdaUpdateWrapper<>();
+                uw.eq(Order::getDsOrderSn, row.getDsOrderSn());
+                uw.and(w -> w.isNull(Order::getPunishReason).or().ne(Order::getPunishReason, row.getPunishReason())
+                        .or().isNull(Order::getOrderLock).or().ne(Order::getOrderLock, 1)
+                        .or().isNull(Order::getOrderRealStatus).or().ne(Order::getOrderRealStatus, 4)
+                        .or().isNull(Order::getOrderStatus).or().ne(Order::getOrderStatus, (byte) 6));
+                uw.set(Order::getOrderLock, 1);
+                uw.set(Order::getOrderRealStatus, 4);
+                uw.set(Order::getOrderStatus, (byte) 6);
+                uw.set(Order::getPunishReason, row.getPunishReason());
+                uw.set(Order::getStatusContent, row.getStatusContent());
+                uw.set(Order::getUpdateTime, new Date());
+                flipped += orderMapper.update(null, uw);
+            } catch (Exception e) {
+                log.warn("Update order punish failed: tradeId={}", row.getDsOrderSn(), e);
+            }
         }
+        return flipped;
     }
 
     private static String firstNonBlank(JSONObject o, String... keys) {
@@ -0,0 +1,101 @@
+package com.nei10u.tip.ordersync.tb;
+
+import com.alibaba.fastjson2.JSONObject;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.nei10u.tip.mapper.TbOrderRefundMapper;
+import com.nei10u.tip.model.TbOrderRefund;
+import com.nei10u.tip.ordersync.util.OrderFingerprintUtil;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.time.Duration;
+import java.util.*;
+
+/**
+ * 淘宝退款证据链批量写入（tb_order_refund）。
+ * <p>
+ * - 调用方按页收集证据，页末调用 {@link #flush} 一次多行 upsert
+ * - 订单同步与退款同步对同一 tradeId 的证据 JSON 不同，按 (tradeId, source) 各存一行，互不覆盖
+ * - 以 raw_json 的 MD5 去重：本地缓存 (tradeId, source) -> hash，命中且一致的证据直接跳过；
+ *   未命中缓存的由 SQL 侧 raw_hash IS DISTINCT FROM 兜底，未变化的行不重写
+ * - 写入失败只记日志，不阻塞订单同步
+ */
+@Slf4j
+@Component
+public class TbRefundEvidenceWriter {
+
+    /** 证据来源：订单同步（refund_tag=1 的订单明细） */
+    public static final String SOURCE_ORDER = "ORDER";
+    /** 证据来源：退款报表同步 */
+    public static final String SOURCE_REFUND = "REFUND";
+
+    private final TbOrderRefundMapper tbOrderRefundMapper;
+    private final Cache<String, String> writtenHashes;
+
+    public TbRefundEvidenceWriter(TbOrderRefundMapper tbOrderRefundMapper,
+                                  @Value("${app.tb.refund.evidence-cache-size:200000}") long cacheSize) {
+        this.tbOrderRefundMapper = tbOrderRefundMapper;
+        this.writtenHashes = Caffeine.newBuilder()
+                .maximumSize(Math.max(1, cacheSize))
+                .expireAfterAccess(Duration.ofDays(1))
+                .build();
+    }
+
+    /**
+     * 构造一条证据（未落库）。
+     *
+     * @param source {@link #SOURCE_ORDER} / {@link #SOURCE_REFUND}
+     */
+    public TbOrderRefund evidence(String tradeId, String source, String orderSn, JSONObject raw) {
+        if (!StringUtils.hasText(tradeId) || raw == null) return null;
+        String json = raw.toJSONString();
+        TbOrderRefund r = new TbOrderRefund();
+        r.setTradeId(tradeId);
+        r.setSource(source);
+        r.setOrderSn(orderSn);
+        r.setRawJson(json);
+        r.setRawHash(OrderFingerprintUtil.md5Hex(json));
+        Date now = new Date();
+        r.setCreateTime(now);
+        r.setUpdateTime(now);
+        return r;
+    }
+
+    /**
+     * 批量写入一页证据。
+     *
+     * @return 实际插入/更新的行数
+     */
+    public int flush(Collection<TbOrderRefund> evidences) {
+        if (evidences == null || evidences.isEmpty()) return 0;
+
+        // 同一 (tradeId, source) 在一条 INSERT ... ON CONFLICT 中只能出现一次：保留最后一条
+        Map<String, TbOrderRefund> byKey = new LinkedHashMap<>();
+        for (TbOrderRefund r : evidences) {
+            if (r == null || !StringUtils.hasText(r.getTradeId())) continue;
+            String key = cacheKey(r);
+            if (r.getRawHash() != null && r.getRawHash().equals(writtenHashes.getIfPresent(key))) continue;
+            byKey.put(key, r);
+        }
+        if (byKey.isEmpty()) return 0;
+
+        List<TbOrderRefund> batch = new ArrayList<>(byKey.values());
+        try {
+            int written = tbOrderRefundMapper.upsertBatch(batch);
+            for (TbOrderRefund r : batch) {
+                if (r.getRawHash() != null) writtenHashes.put(cacheKey(r), r.getRawHash());
+            }
+            return written;
+        } catch (Exception e) {
+            log.warn("Batch upsert tb_order_refund failed: size={}", batch.size(), e);
+            return 0;
+        }
+    }
+
+    private static String cacheKey(TbOrderRefund r) {
+        return r.getSource() + ":" + r.getTradeId();
+    }
+}
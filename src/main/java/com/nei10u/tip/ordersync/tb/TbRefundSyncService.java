@@ -4,17 +4,17 @@ import com.alibaba.fastjson2.JSONArray;
 import com.alibaba.fastjson2.JSONObject;
 import com.baomidou.mybatisplus.core.conditions.update.LambdaUpdateWrapper;
 import com.nei10u.tip.mapper.OrderMapper;
-import com.nei10u.tip.mapper.TbOrderRefundMapper;
 import com.nei10u.tip.model.Order;
 import com.nei10u.tip.model.TbOrderRefund;
+import com.nei10u.tip.ordersync.util.OrderFingerprintUtil;
+import com.nei10u.tip.service.UserEarningsSummaryService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.util.StringUtils;
 
-import java.util.Date;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.*;
 
 /**
  * 淘宝退款补偿同步（对齐 legacy RefundOrderSyncScheduler 的“逐日 startTime + 翻页”思路）。
@@ -30,40 +30,79 @@ public class TbRefundSyncService {
 
     private final TbOpenApiService tbOpenApiService;
     private final OrderMapper orderMapper;
-    private final TbOrderRefundMapper tbOrderRefundMapper;
+    private final TbRefundEvidenceWriter tbRefundEvidenceWriter;
+    private final UserEarningsSummaryService userEarningsSummaryService;
+
+    private static final String REFUND_STATUS_CONTENT = "本单发生退款，佣金重新计算中";
+
+    /** 批量模式：按页合并订单退款状态更新；false 时逐行更新 */
+    @Value("${app.tb.refund.batch-enabled:true}")
+    private boolean batchEnabled;
 
     public int syncByStartTime(String startTime, long bizType) {
         return syncByStartTime(startTime, bizType, 1L);
     }
 
     public int syncByStartTime(String startTime, long bizType, long pageNo) {
+        return syncDay(startTime, bizType, pageNo).rows();
+    }
+
+    /**
+     * 单日同步结果。
+     *
+     * @param rows        处理的报表行数
+     * @param contentHash 当日全部报表行 raw_json 哈希排序后的摘要（与返回顺序无关，用于判断当日数据是否稳定）
+     * @param complete    是否完整拉取（首页接口失败为 false，此时 contentHash 不可信）
+     */
+    public record TbRefundDayResult(int rows, String contentHash, boolean complete) {
+    }
+
+    public TbRefundDayResult syncDay(String startTime, long bizType) {
+        return syncDay(startTime, bizType, 1L);
+    }
+
+    private TbRefundDayResult syncDay(String startTime, long bizType, long pageNo) {
         long page = Math.max(1L, pageNo);
         int total = 0;
+        boolean complete = true;
+        List<String> rowHashes = new ArrayList<>();
 
         while (true) {
             JSONObject resp = callRefund(startTime, bizType, page);
-            if (resp == null) break;
+            if (resp == null) {
+                complete = false;
+                break;
+            }
 
             JSONArray results = extractResults(resp);
             if (results == null || results.isEmpty()) break;
 
+            List<TbOrderRefund> evidences = new ArrayList<>();
+            Map<String, Order> updates = new LinkedHashMap<>();
             for (int i = 0; i < results.size(); i++) {
                 JSONObject r = results.getJSONObject(i);
                 if (r == null) continue;
-                handleOne(r);
+                handleOne(r, evidences, updates);
                 total++;
             }
+            for (TbOrderRefund e : evidences) rowHashes.add(e.getRawHash());
+            // 证据链：整页一次多行 upsert
+            tbRefundEvidenceWriter.flush(evidences);
+            updateRefundStatus(updates.values());
 
             // 简化：接口若总是返回满页，继续翻页；否则停止
             if (results.size() < 100) break;
             page++;
             if (page > 2000) { // 熔断防死循环
                 log.warn("TB refund sync abort: too many pages, startTime={}", startTime);
+                complete = false;
                 break;
             }
         }
 
-        return total;
+        Collections.sort(rowHashes);
+        String contentHash = OrderFingerprintUtil.md5Hex(String.join(",", rowHashes));
+        return new TbRefundDayResult(total, contentHash, complete);
     }
 
     private JSONObject callRefund(String startTime, long bizType, long pageNo) {
@@ -113,24 +152,19 @@ public class TbRefundSyncService {
         return null;
     }
 
-    private void handleOne(JSONObject r) {
+    /**
+     * @param evidences 输出：本行退款证据（由调用方按页批量落库）
+     * @param updates   输出：ds_order_sn -> 待更新的退款状态（同页重复 tradeId 以最后一条为准）
+     */
+    private void handleOne(JSONObject r, List<TbOrderRefund> evidences, Map<String, Order> updates) {
         // tradeId 字段名兼容
         String tradeId = firstNonBlank(r, "tb_trade_id", "tbTradeId", "trade_id", "tradeId");
         if (!StringUtils.hasText(tradeId)) return;
 
-        // 落证据链
-        try {
-            TbOrderRefund evidence = new TbOrderRefund();
-            evidence.setTradeId(tradeId);
-            evidence.setOrderSn("TB_OPEN_" + tradeId);
-            evidence.setRawJson(r.toJSONString());
-            Date now = new Date();
-            evidence.setCreateTime(now);
-            evidence.setUpdateTime(now);
-            tbOrderRefundMapper.upsert(evidence);
-        } catch (Exception e) {
-            log.warn("Upsert tb_order_refund failed: tradeId={}", tradeId, e);
-        }
+        // 收集证据链
+        TbOrderRefund evidence = tbRefundEvidenceWriter.evidence(tradeId, TbRefundEvidenceWriter.SOURCE_REFUND,
+                "TB_OPEN_" + tradeId, r);
+        if (evidence != null) evidences.add(evidence);
 
         // refund_status 映射：legacy 关心 2/3/4；这里统一将“已发生退款且进入报表”标记为 103（已扣回/已确认）
         Integer refundStatus = safeInt(r, "refund_status", "refundStatus");
@@ -142,16 +176,51 @@ public class TbRefundSyncService {
         }
 
         // 更新 orders 表：按 ds_order_sn=tradeId 定位（比 order_sn 更稳）
-        try {
-            LambdaUpdateWrapper<Order> uw = new LambdaUpdateWrapper<>();
-            uw.eq(Order::getDsOrderSn, tradeId);
-            uw.set(Order::getRefundStatus, mapped);
-            uw.set(Order::getStatusContent, "本单发生退款，佣金重新计算中");
-            uw.set(Order::getUpdateTime, new Date());
-            orderMapper.update(null, uw);
-        } catch (Exception e) {
-            log.warn("Update order refund status failed: tradeId={}", tradeId, e);
+        Order row = new Order();
+        row.setDsOrderSn(tradeId);
+        row.setRefundStatus(mapped);
+        row.setStatusContent(REFUND_STATUS_CONTENT);
+        updates.put(tradeId, row);
+    }
+
+    /**
+     * 批量模式：整页一条 UPDATE ... FROM (VALUES ...)，refund_status 已一致的行由 SQL 跳过；
+     * 关闭批量模式时退回逐行更新。
+     */
+    private void updateRefundStatus(Collection<Order> rows) {
+        if (rows.isEmpty()) return;
+
+        if (batchEnabled) {
+            try {
+                int updated = orderMapper.batchUpdateRefundStatus(new ArrayList<>(rows));
+                log.debug("TB refund status batch updated: rows={}, changed={}", rows.size(), updated);
+                if (updated > 0) refreshEarningsSummary(rows);
+                return;
+            } catch (Exception e) {
+                log.warn("Batch update order refund status failed, fallback to single-row: rows={}", rows.size(), e);
+            }
         }
+
+        // 逐行兜底：与批量语句同口径，退款状态未变化的行不重写，只为实际变更的订单重算汇总
+        List<Order> changed = new ArrayList<>();
+        for (Order row : rows) {
+            try {
+                LambdaUpdateWrapper<Order> uw = new LambdaUpdateWrapper<>();
+                uw.eq(Order::getDsOrderSn, row.getDsOrderSn());
+                uw.apply("refund_status IS DISTINCT FROM CAST({0} AS INTEGER)", row.getRefundStatus());
+                uw.set(Order::getRefundStatus, row.getRefundStatus());
+                uw.set(Order::getStatusContent, row.getStatusContent());
+                uw.set(Order::getUpdateTime, new Date());
+                if (orderMapper.update(null, uw) > 0) changed.add(row);
+            } catch (Exception e) {
+                log.warn("Update order refund status failed: tradeId={}", row.getDsOrderSn(), e);
+            }
+        }
+        if (!changed.isEmpty()) refreshEarningsSummary(changed);
+    }
+
+    private void refreshEarningsSummary(Collection<Order> rows) {
+        userEarningsSummaryService.refreshByDsOrderSns(rows.stream().map(Order::getDsOrderSn).toList());
     }
 
     private static Integer safeInt(JSONObject o, String... keys) {
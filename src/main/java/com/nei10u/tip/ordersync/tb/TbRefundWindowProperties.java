@@ -0,0 +1,39 @@
+package com.nei10u.tip.ordersync.tb;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * TB 退款补偿按日调度参数（application.yml: app.tb.refund.window.*）。
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.tb.refund.window")
+public class TbRefundWindowProperties {
+
+    /**
+     * 近期天数（含今天）：每次调度都同步，且不会降为冷数据
+     */
+    private int recentDays = 3;
+
+    /**
+     * 近期之外的基础间隔（分钟）；每早一天间隔翻倍
+     */
+    private int baseIntervalMinutes = 30;
+
+    /**
+     * 指数退避的间隔上限（分钟）
+     */
+    private int maxIntervalMinutes = 720;
+
+    /**
+     * 内容连续稳定多少次后降为冷数据
+     */
+    private int coldAfterStableRuns = 3;
+
+    /**
+     * 冷数据回访间隔（分钟），默认每天一次
+     */
+    private int coldIntervalMinutes = 1440;
+}
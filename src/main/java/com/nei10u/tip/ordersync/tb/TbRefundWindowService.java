@@ -0,0 +1,157 @@
+package com.nei10u.tip.ordersync.tb;
+
+import com.nei10u.tip.mapper.TbRefundDayStateMapper;
+import com.nei10u.tip.model.TbRefundDayState;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+
+/**
+ * TB 退款补偿增量窗口：按日记录同步状态，只同步“到期”的报表日。
+ * <p>
+ * 到期规则（age = 今天 - 报表日，单位天）：
+ * - age &lt; recentDays：每次调度都同步
+ * - 冷数据（内容连续稳定 coldAfterStableRuns 次）：距上次同步满 coldIntervalMinutes
+ * - 其余：距上次同步满 baseIntervalMinutes × 2^(age - recentDays)，上限 maxIntervalMinutes
+ * <p>
+ * 状态更新：仅在当日完整拉取后写入；内容摘要与上次一致则 stableRuns+1，否则清零并解除冷标记。
+ * 状态表不可用时退化为全量逐日同步。
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class TbRefundWindowService {
+
+    private final TbRefundSyncService tbRefundSyncService;
+    private final TbRefundDayStateMapper dayStateMapper;
+    private final TbRefundWindowProperties props;
+
+    private static final DateTimeFormatter DAY_FMT = DateTimeFormatter.ofPattern("yyyy-MM-dd 00:00:00");
+
+    public record TbRefundWindowReport(int days, int dueDays, int syncedDays, int coldDays, int rows, long costMs) {
+    }
+
+    /**
+     * @param days        回看天数（[today - days, today]）
+     * @param bizType     退款接口 biz_type
+     * @param pauseMillis 每次实际调用接口后的间隔（对齐原逐日 sleep 节奏）
+     */
+    public TbRefundWindowReport run(int days, long bizType, long pauseMillis) {
+        long t0 = System.currentTimeMillis();
+        LocalDate today = LocalDate.now();
+        LocalDate start = today.minusDays(Math.max(1, days));
+        LocalDateTime now = LocalDateTime.now();
+
+        Map<LocalDate, TbRefundDayState> states = loadStates(bizType, start);
+
+        int due = 0;
+        int synced = 0;
+        int rows = 0;
+        for (LocalDate day = start; !day.isAfter(today); day = day.plusDays(1)) {
+            TbRefundDayState state = states.get(day);
+            if (!isDue(day, today, state, now)) continue;
+            due++;
+
+            TbRefundSyncService.TbRefundDayResult r =
+                    tbRefundSyncService.syncDay(day.atStartOfDay().format(DAY_FMT), bizType);
+            rows += r.rows();
+            if (r.complete()) {
+                synced++;
+                TbRefundDayState saved = saveState(bizType, day, today, state, r);
+                if (saved != null) states.put(day, saved);
+            }
+
+            try {
+                Thread.sleep(Math.max(0, pauseMillis));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+
+        // 按本轮写入后的状态统计（包含本轮转入/转出冷数据的日）
+        int cold = (int) states.values().stream().filter(s -> Boolean.TRUE.equals(s.getCold())).count();
+        return new TbRefundWindowReport(days, due, synced, cold, rows, System.currentTimeMillis() - t0);
+    }
+
+    private boolean isDue(LocalDate day, LocalDate today, TbRefundDayState state, LocalDateTime now) {
+        long age = ChronoUnit.DAYS.between(day, today);
+        if (age < Math.max(1, props.getRecentDays())) return true;
+        if (state == null || state.getLastSyncTime() == null) return true;
+
+        long intervalMinutes;
+        if (Boolean.TRUE.equals(state.getCold())) {
+            intervalMinutes = Math.max(1, props.getColdIntervalMinutes());
+        } else {
+            long exp = Math.min(age - Math.max(1, props.getRecentDays()), 20);
+            intervalMinutes = Math.min((long) Math.max(1, props.getBaseIntervalMinutes()) << exp,
+                    Math.max(1, props.getMaxIntervalMinutes()));
+        }
+        LocalDateTime last = LocalDateTime.ofInstant(state.getLastSyncTime().toInstant(), ZoneId.systemDefault());
+        return !now.isBefore(last.plus(Duration.ofMinutes(intervalMinutes)));
+    }
+
+    /**
+     * @return 报表日 -> 状态（可修改，本轮写入的新状态回填其中）
+     */
+    private Map<LocalDate, TbRefundDayState> loadStates(long bizType, LocalDate start) {
+        try {
+            dayStateMapper.deleteBefore(bizType, toDate(start));
+            Map<LocalDate, TbRefundDayState> map = new HashMap<>();
+            for (TbRefundDayState s : dayStateMapper.listSince(bizType, toDate(start))) {
+                if (s.getSyncDay() != null) map.put(toLocalDate(s.getSyncDay()), s);
+            }
+            return map;
+        } catch (Exception e) {
+            log.warn("Load tb_refund_day_state failed, sync all days: bizType={}", bizType, e);
+            return new HashMap<>();
+        }
+    }
+
+    /**
+     * @return 写入的新状态；写入失败返回 null
+     */
+    private TbRefundDayState saveState(long bizType, LocalDate day, LocalDate today, TbRefundDayState prev,
+                                       TbRefundSyncService.TbRefundDayResult r) {
+        try {
+            boolean stable = prev != null && Objects.equals(prev.getContentHash(), r.contentHash());
+            int stableRuns = stable ? (prev.getStableRuns() == null ? 0 : prev.getStableRuns()) + 1 : 0;
+            boolean recent = ChronoUnit.DAYS.between(day, today) < Math.max(1, props.getRecentDays());
+
+            TbRefundDayState s = new TbRefundDayState();
+            s.setBizType(bizType);
+            s.setSyncDay(toDate(day));
+            Date now = new Date();
+            s.setLastSyncTime(now);
+            s.setRowCount(r.rows());
+            s.setContentHash(r.contentHash());
+            s.setStableRuns(stableRuns);
+            s.setCold(!recent && stableRuns >= Math.max(1, props.getColdAfterStableRuns()));
+            s.setCreateTime(now);
+            s.setUpdateTime(now);
+            dayStateMapper.upsert(s);
+            return s;
+        } catch (Exception e) {
+            log.warn("Save tb_refund_day_state failed: bizType={}, day={}", bizType, day, e);
+            return null;
+        }
+    }
+
+    private static Date toDate(LocalDate d) {
+        return Date.from(d.atStartOfDay(ZoneId.systemDefault()).toInstant());
+    }
+
+    private static LocalDate toLocalDate(Date d) {
+        // java.sql.Date 不支持 toInstant()
+        return (d instanceof java.sql.Date sd) ? sd.toLocalDate()
+                : LocalDate.ofInstant(d.toInstant(), ZoneId.systemDefault());
+    }
+}
@@ -0,0 +1,260 @@
+package com.nei10u.tip.ordersync.tb;
+
+import com.nei10u.tip.mapper.TbSyncSliceCheckpointMapper;
+import com.nei10u.tip.model.TbSyncSliceCheckpoint;
+import com.nei10u.tip.ordersync.util.OrderSyncParseUtil;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * TB 订单回溯切片执行器：
+ * - 将 [start, end) 按 stepMinutes 切片，切片在有界线程池上并发执行
+ * - 每个切片内按传入顺序依次同步各 orderScene（与原串行实现保持一致）
+ * - 接口速率统一由 {@link TbOrderApiRateLimiter} 控制，线程数只影响并发度，不会突破 QPS 配额
+ * - 切片内所有 orderScene 都完整同步（无失败页）后才写 tb_sync_slice_checkpoint；同一 runKey 再次运行时跳过已完成切片，
+ *   不完整的切片记为 failed、不写 checkpoint，重跑时重试
+ * - 每个工作线程整轮共用一个落库缓冲，累计超过 bulk-ingest 阈值后改走 COPY；切片的行随 COPY 批次提交后才写 checkpoint
+ * <p>
+ * 指标（Micrometer）：
+ * - tb.order.backfill.run：整轮耗时
+ * - tb.order.backfill.slice：单切片耗时
+ * - tb.order.backfill.slices{result=done|skipped|failed}：切片计数
+ * - tb.order.backfill.slices.per.second：最近一轮的切片吞吐
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class TbSliceExecutor {
+
+    private final TbOrderSyncService tbOrderSyncService;
+    private final TbSyncSliceCheckpointMapper checkpointMapper;
+    private final TbBackFillProperties props;
+    private final MeterRegistry meterRegistry;
+
+    private static final DateTimeFormatter RUN_KEY_FMT = DateTimeFormatter.ofPattern("yyyyMMddHHmm");
+
+    private final Map<String, AtomicReference<Double>> throughputGauges = new ConcurrentHashMap<>();
+
+    public record SliceRunReport(String runKey, int totalSlices, int skippedSlices, int doneSlices,
+                                 int failedSlices, long orders, long costMs) {
+    }
+
+    /**
+     * @param job         任务名（用于 runKey、线程名与指标 tag）
+     * @param orderScenes 每个切片依次同步的 orderScene
+     */
+    public SliceRunReport run(String job, LocalDateTime start, LocalDateTime end, int stepMinutes,
+                              TbSyncType syncType, long... orderScenes) {
+        int step = Math.max(1, stepMinutes);
+        String runKey = job + ":" + start.format(RUN_KEY_FMT) + "-" + end.format(RUN_KEY_FMT);
+
+        List<LocalDateTime> slices = new ArrayList<>();
+        for (LocalDateTime cursor = start; cursor.isBefore(end); cursor = cursor.plusMinutes(step)) {
+            slices.add(cursor);
+        }
+
+        Set<LocalDateTime> done = loadDoneSlices(runKey);
+        List<LocalDateTime> pending = slices.stream().filter(s -> !done.contains(s)).toList();
+        int skipped = slices.size() - pending.size();
+        counter(job, "skipped").increment(skipped);
+
+        int poolSize = Math.max(1, props.getPoolSize());
+        log.info("TB back-fill start: runKey={}, slices={}, skipped(checkpoint)={}, poolSize={}",
+                runKey, slices.size(), skipped, poolSize);
+
+        AtomicInteger doneCount = new AtomicInteger();
+        AtomicInteger failedCount = new AtomicInteger();
+        AtomicLong orderCount = new AtomicLong();
+        Timer sliceTimer = Timer.builder("tb.order.backfill.slice").tag("job", job).register(meterRegistry);
+
+        long startNanos = System.nanoTime();
+        Queue<LocalDateTime> queue = new ConcurrentLinkedQueue<>(pending);
+        int workers = Math.min(poolSize, Math.max(1, pending.size()));
+        ExecutorService pool = Executors.newFixedThreadPool(poolSize, namedThreadFactory(job));
+        try {
+            for (int w = 0; w < workers; w++) {
+                pool.execute(() -> {
+                    // 工作线程整轮共用一个落库缓冲：COPY 阈值按本线程累计行数判断（单个切片远小于阈值）
+                    TbOrderSyncService.IngestBuffer buffer = tbOrderSyncService.newIngestBuffer();
+                    List<AwaitingSlice> awaiting = new ArrayList<>();
+                    LocalDateTime sliceStart;
+                    while ((sliceStart = queue.poll()) != null) {
+                        LocalDateTime sliceEnd = sliceStart.plusMinutes(step).isAfter(end) ? end : sliceStart.plusMinutes(step);
+                        long t0 = System.nanoTime();
+                        long rows0 = buffer.rows();
+                        try {
+                            int count = 0;
+                            boolean complete = true;
+                            for (long scene : orderScenes) {
+                                TbOrderSyncService.TbSyncResult r =
+                                        tbOrderSyncService.syncRangeResult(sliceStart, sliceEnd, scene, syncType, buffer);
+                                count += r.count();
+                                complete &= r.complete();
+                            }
+                            orderCount.addAndGet(count);
+                            if (complete) {
+                                awaiting.add(new AwaitingSlice(sliceStart, (int) (buffer.rows() - rows0), buffer.flushCount()));
+                            } else {
+                                failedCount.incrementAndGet();
+                                counter(job, "failed").increment();
+                                log.warn("TB back-fill slice incomplete, no checkpoint: runKey={}, slice={}~{}",
+                                        runKey, sliceStart, sliceEnd);
+                            }
+                            checkpointCommitted(job, runKey, awaiting, buffer, doneCount);
+                        } catch (Exception e) {
+                            failedCount.incrementAndGet();
+                            counter(job, "failed").increment();
+                            log.warn("TB back-fill slice failed: runKey={}, slice={}~{}", runKey, sliceStart, sliceEnd, e);
+                            failUncommitted(job, runKey, awaiting, buffer, doneCount, failedCount);
+                        } finally {
+                            sliceTimer.record(System.nanoTime() - t0, TimeUnit.NANOSECONDS);
+                        }
+                    }
+                    // 落库剩余行，COPY 合并提交后再写这些切片的断点
+                    try {
+                        orderCount.addAndGet(buffer.finish());
+                        checkpointCommitted(job, runKey, awaiting, buffer, doneCount);
+                    } catch (Exception e) {
+                        log.warn("TB back-fill final flush failed: runKey={}, slices={}", runKey, awaiting.size(), e);
+                        failUncommitted(job, runKey, awaiting, buffer, doneCount, failedCount);
+                    }
+                });
+            }
+            pool.shutdown();
+            while (!pool.awaitTermination(1, TimeUnit.MINUTES)) {
+                log.info("TB back-fill progress: runKey={}, done={}, failed={}, pending={}",
+                        runKey, doneCount.get(), failedCount.get(), pending.size() - doneCount.get() - failedCount.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            pool.shutdownNow();
+            log.warn("TB back-fill interrupted: runKey={}", runKey);
+        }
+
+        long costNanos = System.nanoTime() - startNanos;
+        Timer.builder("tb.order.backfill.run").tag("job", job).register(meterRegistry)
+                .record(costNanos, TimeUnit.NANOSECONDS);
+        double slicesPerSecond = costNanos <= 0 ? 0.0d : doneCount.get() / (costNanos / 1_000_000_000.0d);
+        throughputGauge(job).set(slicesPerSecond);
+
+        SliceRunReport report = new SliceRunReport(runKey, slices.size(), skipped, doneCount.get(),
+                failedCount.get(), orderCount.get(), TimeUnit.NANOSECONDS.toMillis(costNanos));
+        log.info("TB back-fill done: {}, slicesPerSecond={}", report, String.format(Locale.ROOT, "%.2f", slicesPerSecond));
+        return report;
+    }
+
+    /**
+     * 已完整同步、但行可能仍在落库缓冲中的切片。
+     *
+     * @param flushCount 切片结束时缓冲已提交的 COPY 批次数
+     */
+    private record AwaitingSlice(LocalDateTime sliceStart, int rows, long flushCount) {
+    }
+
+    /**
+     * 为行已提交的切片写断点：缓冲已清空，或切片结束后又成功提交过一批 COPY（该批包含切片当时缓冲中的全部行）。
+     */
+    private void checkpointCommitted(String job, String runKey, List<AwaitingSlice> awaiting,
+                                     TbOrderSyncService.IngestBuffer buffer, AtomicInteger doneCount) {
+        boolean idle = !buffer.hasPending();
+        Iterator<AwaitingSlice> it = awaiting.iterator();
+        while (it.hasNext()) {
+            AwaitingSlice a = it.next();
+            if (!idle && a.flushCount() >= buffer.flushCount()) continue;
+            markDone(runKey, a.sliceStart(), a.rows());
+            doneCount.incrementAndGet();
+            counter(job, "done").increment();
+            it.remove();
+        }
+    }
+
+    /**
+     * 落库异常：已随成功批次提交的切片照常写断点，其余丢弃缓冲并记为失败（不写断点，重跑时重试）。
+     */
+    private void failUncommitted(String job, String runKey, List<AwaitingSlice> awaiting,
+                                 TbOrderSyncService.IngestBuffer buffer, AtomicInteger doneCount,
+                                 AtomicInteger failedCount) {
+        for (AwaitingSlice a : awaiting) {
+            if (a.flushCount() < buffer.flushCount()) {
+                markDone(runKey, a.sliceStart(), a.rows());
+                doneCount.incrementAndGet();
+                counter(job, "done").increment();
+            } else {
+                failedCount.incrementAndGet();
+                counter(job, "failed").increment();
+                log.warn("TB back-fill slice rows not committed, no checkpoint: runKey={}, slice={}",
+                        runKey, a.sliceStart());
+            }
+        }
+        awaiting.clear();
+        buffer.discard();
+    }
+
+    private Set<LocalDateTime> loadDoneSlices(String runKey) {
+        if (!props.isCheckpointEnabled()) return Collections.emptySet();
+        try {
+            int retainDays = Math.max(1, props.getCheckpointRetainDays());
+            checkpointMapper.deleteBefore(OrderSyncParseUtil.toDate(LocalDateTime.now().minusDays(retainDays)));
+
+            Set<LocalDateTime> done = new HashSet<>();
+            for (Date d : checkpointMapper.listDoneSliceStarts(runKey)) {
+                if (d != null) done.add(OrderSyncParseUtil.toLocalDateTime(d));
+            }
+            return done;
+        } catch (Exception e) {
+            // 断点不可用时退化为全量执行，不阻塞同步
+            log.warn("Load tb_sync_slice_checkpoint failed, run without checkpoint: runKey={}", runKey, e);
+            return Collections.emptySet();
+        }
+    }
+
+    private void markDone(String runKey, LocalDateTime sliceStart, int count) {
+        if (!props.isCheckpointEnabled()) return;
+        try {
+            TbSyncSliceCheckpoint c = new TbSyncSliceCheckpoint();
+            c.setRunKey(runKey);
+            c.setSliceStart(OrderSyncParseUtil.toDate(sliceStart));
+            c.setOrderCount(count);
+            Date now = new Date();
+            c.setCreateTime(now);
+            c.setUpdateTime(now);
+            checkpointMapper.markDone(c);
+        } catch (Exception e) {
+            log.warn("Mark tb_sync_slice_checkpoint failed: runKey={}, slice={}", runKey, sliceStart, e);
+        }
+    }
+
+    private Counter counter(String job, String result) {
+        return meterRegistry.counter("tb.order.backfill.slices", Tags.of("job", job, "result", result));
+    }
+
+    private AtomicReference<Double> throughputGauge(String job) {
+        return throughputGauges.computeIfAbsent(job, j -> {
+            AtomicReference<Double> ref = new AtomicReference<>(0.0d);
+            meterRegistry.gauge("tb.order.backfill.slices.per.second", Tags.of("job", j), ref, AtomicReference::get);
+            return ref;
+        });
+    }
+
+    private static ThreadFactory namedThreadFactory(String job) {
+        AtomicInteger seq = new AtomicInteger();
+        return r -> {
+            Thread t = new Thread(r, "tb-backfill-" + job.toLowerCase(Locale.ROOT) + "-" + seq.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        };
+    }
+}
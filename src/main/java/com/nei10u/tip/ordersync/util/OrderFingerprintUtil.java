@@ -0,0 +1,89 @@
+package com.nei10u.tip.ordersync.util;
+
+import com.nei10u.tip.model.Order;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.Date;
+import java.util.HexFormat;
+
+/**
+ * 订单内容指纹：对同步写入 orders 的业务字段做稳定哈希。
+ * <p>
+ * 约定：
+ * - 只覆盖 insertOrUpdateBatch 会回写的业务字段；id / userId / creditedFee / createTime / updateTime 不参与
+ *   （userId 由 upsert 单独比较；其余字段或不由同步写入，或每次同步都会变化）
+ * - 字段顺序固定、null 与空串区分，保证同一份上游数据多次映射得到相同指纹
+ */
+public final class OrderFingerprintUtil {
+
+    private static final char SEP = '\u001F';
+
+    private OrderFingerprintUtil() {
+    }
+
+    public static String of(Order o) {
+        if (o == null) return null;
+
+        StringBuilder sb = new StringBuilder(256);
+        append(sb, o.getOrderSn());
+        append(sb, o.getDsOrderSn());
+        append(sb, o.getOrderTitle());
+        append(sb, o.getImg());
+        append(sb, o.getSid());
+        append(sb, o.getRelationId());
+        append(sb, o.getSpecialId());
+        append(sb, o.getAdZoneId());
+        append(sb, o.getTypeNo());
+        append(sb, o.getTypeName());
+        append(sb, o.getUnionPlatform());
+        append(sb, o.getOrderPrice());
+        append(sb, o.getPayPrice());
+        append(sb, o.getShareRate());
+        append(sb, o.getShareFee());
+        append(sb, o.getGrossShareFee());
+        append(sb, o.getBaseDeductionRate());
+        append(sb, o.getBaseDeductionFee());
+        append(sb, o.getPlatformProfitRate());
+        append(sb, o.getPlatformProfitFee());
+        append(sb, o.getUserDiscount());
+        append(sb, o.getOrderDiscount());
+        append(sb, o.getOrderStatus());
+        append(sb, o.getOrderRealStatus());
+        append(sb, o.getRefundStatus());
+        append(sb, o.getOrderLock());
+        append(sb, o.getPunishReason());
+        append(sb, o.getStatusContent());
+        append(sb, o.getPayTime());
+        append(sb, o.getEarnTime());
+        append(sb, o.getModifyTime());
+        append(sb, o.getPayMonth());
+        append(sb, o.getEstimateDate());
+
+        return md5Hex(sb.toString());
+    }
+
+    /**
+     * 字符串 MD5（32 位小写 hex）；null 返回 null。
+     */
+    public static String md5Hex(String s) {
+        if (s == null) return null;
+        try {
+            MessageDigest md = MessageDigest.getInstance("MD5");
+            return HexFormat.of().formatHex(md.digest(s.getBytes(StandardCharsets.UTF_8)));
+        } catch (Exception e) {
+            throw new IllegalStateException("MD5 not available", e);
+        }
+    }
+
+    private static void append(StringBuilder sb, Object v) {
+        if (v == null) {
+            sb.append('\u0000');
+        } else if (v instanceof Date d) {
+            sb.append(d.getTime());
+        } else {
+            sb.append(v);
+        }
+        sb.append(SEP);
+    }
+}
@@ -171,4 +171,17 @@ public final class OrderSyncParseUtil {
             return null;
         return Date.from(t.atZone(ZoneId.systemDefault()).toInstant());
     }
+
+    /**
+     * java.util.Date（含 java.sql.Timestamp）转 LocalDateTime。
+     * 使用系统默认时区。
+     *
+     * @param d Date
+     * @return LocalDateTime
+     */
+    public static LocalDateTime toLocalDateTime(Date d) {
+        if (d == null)
+            return null;
+        return LocalDateTime.ofInstant(d.toInstant(), ZoneId.systemDefault());
+    }
 }
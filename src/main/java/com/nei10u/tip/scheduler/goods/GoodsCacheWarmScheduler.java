@@ -0,0 +1,27 @@
+package com.nei10u.tip.scheduler.goods;
+
+import com.nei10u.tip.goods.cache.GoodsCacheWarmer;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * 商品列表热点预热调度器（周期见 app.goods.cache.warm.interval-ms）
+ * <p>
+ * 只把一轮预热投递到 GoodsCacheWarmer 的专用线程，不在共享调度池上执行回源与限速等待。
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class GoodsCacheWarmScheduler {
+
+    private final GoodsCacheWarmer goodsCacheWarmer;
+
+    @Scheduled(initialDelay = 10_000L, fixedDelayString = "${app.goods.cache.warm.interval-ms:15000}")
+    public void warmHotKeys() {
+        if (!goodsCacheWarmer.trigger()) {
+            log.debug("商品列表预热上一轮未结束，本次跳过");
+        }
+    }
+}
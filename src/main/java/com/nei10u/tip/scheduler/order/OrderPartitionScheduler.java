@@ -0,0 +1,36 @@
+package com.nei10u.tip.scheduler.order;
+
+import com.nei10u.tip.service.OrderPartitionService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * orders 分区维护任务：每日预建未来月份分区，并按配置归档（DETACH）过期分区。
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class OrderPartitionScheduler {
+
+    private final OrderPartitionService orderPartitionService;
+
+    @Value("${app.order.partition.enabled:true}")
+    private boolean enabled;
+
+    /**
+     * 默认：每天 03:10。可通过 app.order.partition.cron 覆盖。
+     */
+    @Scheduled(cron = "${app.order.partition.cron:0 10 3 * * ?}")
+    public void scheduled() {
+        if (!enabled) return;
+        try {
+            OrderPartitionService.MaintenanceReport report = orderPartitionService.maintain();
+            log.info("OrderPartitionScheduler done: {}", report);
+        } catch (Exception e) {
+            log.error("OrderPartitionScheduler failed", e);
+        }
+    }
+}
@@ -1,6 +1,6 @@
 package com.nei10u.tip.scheduler.order.tb;
 
-import com.nei10u.tip.ordersync.tb.TbOrderSyncService;
+import com.nei10u.tip.ordersync.tb.TbSliceExecutor;
 import com.nei10u.tip.ordersync.tb.TbSyncType;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -19,6 +19,7 @@ import java.time.LocalTime;
  * - 按 20 分钟切片循环（6480 次 = 90*24*3）
  * - 每个切片跑两条：筛选订单类型，1:所有订单，2:渠道订单，3:会员运营订单，默认为1
  * - SyncType：DAY -> queryType=4
+ * - 切片由 {@link TbSliceExecutor} 并发执行（受 QPS 令牌桶约束），并按切片记录断点，崩溃后当天重跑可续跑
  */
 @Slf4j
 @Component
@@ -26,7 +27,7 @@ import java.time.LocalTime;
 @ConditionalOnProperty(prefix = "app.tb.scheduler", name = "enabled", havingValue = "true")
 public class TbOrderDayScheduler {
 
-    private final TbOrderSyncService tbOrderSyncService;
+    private final TbSliceExecutor tbSliceExecutor;
 
     @Value("${app.tb.scheduler.back-fill-days:90}")
     private int backFillDays;
@@ -43,18 +44,11 @@ public class TbOrderDayScheduler {
         LocalDateTime end = LocalDateTime.of(LocalDate.now(), LocalTime.MIDNIGHT);
         LocalDateTime start = end.minusDays(days);
 
-        long slices = (long) days * 24 * (60 / step);
-        log.info("TB day sync start: days={}, stepMinutes={}, slices={}", days, step, slices);
+        log.info("TB day sync start: days={}, stepMinutes={}", days, step);
 
-        LocalDateTime cursor = start;
-        for (long i = 0; i < slices; i++) {
-            LocalDateTime next = cursor.plusMinutes(step);
-            tbOrderSyncService.syncRange(cursor, next, 2L, TbSyncType.DAY);
-            tbOrderSyncService.syncRange(cursor, next, 1L, TbSyncType.DAY);
-            cursor = next;
-        }
+        TbSliceExecutor.SliceRunReport report = tbSliceExecutor.run("DAY", start, end, step, TbSyncType.DAY, 2L, 1L);
 
-        log.info("TB day sync done");
+        log.info("TB day sync done: {}", report);
     }
 }
 
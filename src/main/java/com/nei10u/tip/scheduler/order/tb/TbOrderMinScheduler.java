@@ -8,13 +8,11 @@ import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
-import java.time.LocalDateTime;
-
 /**
  * TB 分钟级订单同步：
- * - 时间窗：最近 20 分钟
+ * - 时间窗：按 (orderScene, MINUTE) 高水位增量拉取（上次成功水位 - 少量重叠 ~ now），不再固定回看 20 分钟
  * - 先同步 orderScene=2:渠道订单，再同步 orderScene=1:所有订单
- * - SyncType：MINUTE -> queryType=4
+ * - SyncType：MINUTE -> queryType=4（按 tk_modified_time）
  */
 @Slf4j
 @Component
@@ -27,14 +25,9 @@ public class TbOrderMinScheduler {
     // 每分钟第 35 秒
     @Scheduled(cron = "35 * * * * ?")
     public void scheduled() {
-        LocalDateTime end = LocalDateTime.now();
-        LocalDateTime start = end.minusMinutes(20);
-
-        int c1 = tbOrderSyncService.syncRange(start, end, 2L, TbSyncType.MINUTE);
-        int c2 = tbOrderSyncService.syncRange(start, end, 1L, TbSyncType.MINUTE);
+        TbOrderSyncService.TbSyncResult r2 = tbOrderSyncService.syncSinceWatermark(2L, TbSyncType.MINUTE);
+        TbOrderSyncService.TbSyncResult r1 = tbOrderSyncService.syncSinceWatermark(1L, TbSyncType.MINUTE);
 
-        log.info("TB minute sync done: start={}, end={}, scene2={}, scene1={}", start, end, c1, c2);
+        log.info("TB minute sync done: scene2={}, scene1={}", r2, r1);
     }
 }
-
-
@@ -40,10 +40,13 @@ public class TbPunishScheduler {
 
         LocalDate start = LocalDate.now().minusDays(days);
         int total = 0;
+        int flipped = 0;
 
         for (int i = 1; i < days; i++) {
             String startTime = start.plusDays(i - 1).format(DAY_FMT);
-            total += tbPunishSyncService.syncByStartTime(startTime, 1, size);
+            TbPunishSyncService.TbPunishSyncResult r = tbPunishSyncService.syncByStartTime(startTime, 1, size);
+            total += r.items();
+            flipped += r.flipped();
             try {
                 Thread.sleep(500);
             } catch (InterruptedException e) {
@@ -52,7 +55,7 @@ public class TbPunishScheduler {
             }
         }
 
-        log.info("TB punish sync done: days={}, totalItems={}", days, total);
+        log.info("TB punish sync done: days={}, totalItems={}, flipped={}", days, total, flipped);
     }
 }
 
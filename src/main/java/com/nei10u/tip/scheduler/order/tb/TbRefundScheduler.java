@@ -1,6 +1,6 @@
 package com.nei10u.tip.scheduler.order.tb;
 
-import com.nei10u.tip.ordersync.tb.TbRefundSyncService;
+import com.nei10u.tip.ordersync.tb.TbRefundWindowService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
@@ -8,14 +8,12 @@ import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
-import java.time.LocalDate;
-import java.time.format.DateTimeFormatter;
-
 /**
  * TB 退款补偿（对齐 legacy RefundOrderSyncScheduler）：
  * - 每 30 分钟跑一次
- * - 从今天 00:00 往前 90 天，逐日调用 refund 接口
- * - 每天调用后 sleep 1s
+ * - 从今天 00:00 往前 refundDays 天，逐日调用 refund 接口
+ * - 只同步到期的报表日（近期每次、远期指数退避、稳定日按天回访），见 {@link TbRefundWindowService}
+ * - 每次实际调用后 sleep 1s
  */
 @Slf4j
 @Component
@@ -23,32 +21,15 @@ import java.time.format.DateTimeFormatter;
 @ConditionalOnProperty(prefix = "app.tb.scheduler", name = "enabled", havingValue = "true")
 public class TbRefundScheduler {
 
-    private final TbRefundSyncService tbRefundSyncService;
+    private final TbRefundWindowService tbRefundWindowService;
 
     @Value("${app.tb.scheduler.refund-days:60}")
     private int refundDays;
 
-    private static final DateTimeFormatter DAY_FMT = DateTimeFormatter.ofPattern("yyyy-MM-dd 00:00:00");
-
     @Scheduled(cron = "0 0/30 * * * ?")
     public void scheduled() {
         int days = Math.max(1, refundDays);
-        LocalDate start = LocalDate.now().minusDays(days);
-
-        int total = 0;
-        for (int i = 0; i <= days; i++) {
-            String startTime = start.plusDays(i).format(DAY_FMT);
-            total += tbRefundSyncService.syncByStartTime(startTime, 1L);
-            try {
-                Thread.sleep(1000);
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-                break;
-            }
-        }
-
-        log.info("TB refund sync done: days={}, totalItems={}", days, total);
+        TbRefundWindowService.TbRefundWindowReport report = tbRefundWindowService.run(days, 1L, 1000L);
+        log.info("TB refund sync done: {}", report);
     }
 }
-
-
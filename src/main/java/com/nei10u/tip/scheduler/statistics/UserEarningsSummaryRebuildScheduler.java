@@ -0,0 +1,39 @@
+package com.nei10u.tip.scheduler.statistics;
+
+import com.nei10u.tip.service.UserEarningsSummaryService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * 用户收益汇总重建任务：
+ * <p>
+ * - 增量维护在订单事务提交后执行，失败/并发写入可能留下漂移
+ * - 本任务从 orders 全量重算并与汇总表比对，修复漂移分桶并清理孤儿行；漂移数记入 statistics.summary.drift
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class UserEarningsSummaryRebuildScheduler {
+
+    private final UserEarningsSummaryService userEarningsSummaryService;
+
+    /**
+     * 默认：每天 04:30。可通过 app.statistics.summary.rebuild-cron 覆盖。
+     */
+    @Scheduled(cron = "${app.statistics.summary.rebuild-cron:0 30 4 * * ?}")
+    public void scheduled() {
+        if (!userEarningsSummaryService.isEnabled()) return;
+        try {
+            UserEarningsSummaryService.RebuildReport report = userEarningsSummaryService.rebuild();
+            if (report.driftBuckets() > 0 || report.orphanRows() > 0) {
+                log.warn("UserEarningsSummary rebuild found drift: {}", report);
+            } else {
+                log.info("UserEarningsSummary rebuild done: {}", report);
+            }
+        } catch (Exception e) {
+            log.error("UserEarningsSummary rebuild failed", e);
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.nei10u.tip.service;
 
+import com.nei10u.tip.http.UpstreamGuard;
 import io.micrometer.common.util.StringUtils;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -22,6 +23,8 @@ public class DtkApiService {
 
     private final RestTemplate restTemplate;
 
+    private final UpstreamGuard upstreamGuard;
+
     @Value("${app.dtk.app-key:6936f422c3a79}")
     private String appKey;
 
@@ -357,6 +360,9 @@ public class DtkApiService {
      */
     private String doRequest(String url, Map<String, String> params) {
         try {
+            // 兜底缓存键在加入随机数/时间戳/签名前计算
+            String requestKey = UpstreamGuard.key(url, params);
+
             // 新版验签参数
             String nonce = String.valueOf((int) ((Math.random() * 9 + 1) * 100000)); // 6位随机数
             String timer = String.valueOf(System.currentTimeMillis());
@@ -378,7 +384,8 @@ public class DtkApiService {
             log.info("Requesting DTK Full URL: {}", fullUrl);
 
             // 发送请求
-            String response = restTemplate.getForObject(fullUrl, String.class);
+            String response = upstreamGuard.call("dtk", requestKey,
+                    () -> restTemplate.getForObject(fullUrl, String.class));
             log.info("DTK API Response: {}", response);
 
             return response;
@@ -4,9 +4,15 @@ import com.alibaba.fastjson2.JSONObject;
 
 public interface GoodsCacheService {
 
-    JSONObject getOrLoadTbTrendFirstPage();
+    /**
+     * 淘宝热榜（经商品列表缓存）
+     */
+    JSONObject getTbTrend(String type, String cid, int pageId, int pageSize);
 
-    JSONObject getOrLoadJdCurrentFirstPage();
+    /**
+     * 京东实时榜单（经商品列表缓存）
+     */
+    JSONObject getJdCurrentTrend(int cid, int pageId, int pageSize);
 
     JSONObject fetchTbTrend(String type, String cid, int pageId, int pageSize);
 
@@ -1,5 +1,6 @@
 package com.nei10u.tip.service;
 
+import com.nei10u.tip.http.UpstreamGuard;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
@@ -29,6 +30,8 @@ public class HjkApiService {
 
     private final RestTemplate restTemplate;
 
+    private final UpstreamGuard upstreamGuard;
+
     @Value("${app.hjk.api-key:}")
     private String apiKey;
 
@@ -145,7 +148,8 @@ public class HjkApiService {
             }
 
             HttpEntity<MultiValueMap<String, String>> req = new HttpEntity<>(form, headers);
-            return restTemplate.postForObject(fullUrl, req, String.class);
+            return upstreamGuard.call("hjk", UpstreamGuard.key(url, form.toSingleValueMap()),
+                    () -> restTemplate.postForObject(fullUrl, req, String.class));
         } catch (Exception e) {
             log.error("HJK request failed: {}", url, e);
             return null;
@@ -0,0 +1,171 @@
+package com.nei10u.tip.service;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * orders 月度分区维护（orders 为按 create_time 的 RANGE 分区表时生效）。
+ * <p>
+ * - 预建：[当月 - monthsBehind, 当月 + monthsAhead] 的月分区 orders_pYYYYMM，以及兜底的 orders_default
+ * - 归档：detachAfterMonths > 0 时，将早于该月数的分区 DETACH（保留为独立表，不删除数据），
+ *   同一事务内删除该分区订单在 order_sn_keys 中的登记，登记表只保留 orders 中仍可见的订单
+ * <p>
+ * 启动时先预建一次，保证调度任务开始写入前分区已就绪；历史非分区表上为空操作。
+ * orders_default 中已有某月数据（如归档后旧订单再次写入）时，建该月分区会把这些行在同一事务内搬入新分区后再 ATTACH。
+ * 已归档的月份不会重建；如需手工重新 ATTACH 归档表，须先处理 orders_default 中该月的行。
+ */
+@Slf4j
+@Service
+public class OrderPartitionService {
+
+    private static final DateTimeFormatter SUFFIX_FMT = DateTimeFormatter.ofPattern("yyyyMM");
+    private static final Pattern PARTITION_NAME = Pattern.compile("^orders_p(\\d{6})$");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate tx;
+    private final boolean enabled;
+    private final int monthsBehind;
+    private final int monthsAhead;
+    private final int detachAfterMonths;
+
+    public record MaintenanceReport(boolean partitioned, int created, List<String> detached, int purgedKeys) {
+    }
+
+    public OrderPartitionService(JdbcTemplate jdbcTemplate,
+                                 PlatformTransactionManager transactionManager,
+                                 @Value("${app.order.partition.enabled:true}") boolean enabled,
+                                 @Value("${app.order.partition.months-behind:12}") int monthsBehind,
+                                 @Value("${app.order.partition.months-ahead:3}") int monthsAhead,
+                                 @Value("${app.order.partition.detach-after-months:0}") int detachAfterMonths) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.tx = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+        this.monthsBehind = Math.max(0, monthsBehind);
+        this.monthsAhead = Math.max(1, monthsAhead);
+        this.detachAfterMonths = Math.max(0, detachAfterMonths);
+    }
+
+    @PostConstruct
+    public void init() {
+        if (!enabled) return;
+        try {
+            MaintenanceReport r = maintain();
+            log.info("Orders partition init: {}", r);
+        } catch (Exception e) {
+            // 不阻断启动：落在未建分区月份的写入会进入 orders_default
+            log.error("Orders partition init failed", e);
+        }
+    }
+
+    /**
+     * 预建分区并按配置归档旧分区。
+     */
+    public MaintenanceReport maintain() {
+        if (!isPartitioned()) return new MaintenanceReport(false, 0, List.of(), 0);
+
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS orders_default PARTITION OF orders DEFAULT");
+
+        YearMonth now = YearMonth.now();
+        int created = 0;
+        for (YearMonth m = now.minusMonths(monthsBehind); !m.isAfter(now.plusMonths(monthsAhead)); m = m.plusMonths(1)) {
+            try {
+                if (createMonth(m)) created++;
+            } catch (Exception e) {
+                log.warn("Create orders partition failed: month={}", m, e);
+            }
+        }
+
+        List<String> detached = new ArrayList<>();
+        int purgedKeys = 0;
+        if (detachAfterMonths > 0) {
+            YearMonth cutoff = now.minusMonths(detachAfterMonths);
+            for (String name : listMonthPartitions()) {
+                Matcher mt = PARTITION_NAME.matcher(name);
+                if (!mt.matches()) continue;
+                YearMonth m = YearMonth.parse(mt.group(1), SUFFIX_FMT);
+                if (!m.isBefore(cutoff)) continue;
+                try {
+                    purgedKeys += detachMonth(name);
+                    detached.add(name);
+                } catch (Exception e) {
+                    log.warn("Detach orders partition failed: {}", name, e);
+                }
+            }
+        }
+        return new MaintenanceReport(true, created, detached, purgedKeys);
+    }
+
+    public boolean isPartitioned() {
+        Boolean r = jdbcTemplate.queryForObject(
+                "SELECT EXISTS (SELECT 1 FROM pg_partitioned_table WHERE partrelid = to_regclass('orders'))",
+                Boolean.class);
+        return Boolean.TRUE.equals(r);
+    }
+
+    /**
+     * @return 是否新建（已存在返回 false）
+     */
+    private boolean createMonth(YearMonth m) {
+        String name = "orders_p" + m.format(SUFFIX_FMT);
+        Boolean exists = jdbcTemplate.queryForObject("SELECT to_regclass(?) IS NOT NULL", Boolean.class, name);
+        if (Boolean.TRUE.equals(exists)) return false;
+        // 名称与边界均由 YearMonth 生成，无外部输入
+        String from = m.atDay(1).toString();
+        String to = m.plusMonths(1).atDay(1).toString();
+        String bounds = " FOR VALUES FROM ('" + from + "') TO ('" + to + "')";
+
+        Boolean stray = jdbcTemplate.queryForObject(
+                "SELECT EXISTS (SELECT 1 FROM orders_default WHERE create_time >= ?::timestamp AND create_time < ?::timestamp)",
+                Boolean.class, from, to);
+        if (!Boolean.TRUE.equals(stray)) {
+            jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + name + " PARTITION OF orders" + bounds);
+            return true;
+        }
+
+        // orders_default 已有该月数据时不能直接 PARTITION OF：先建独立表（列顺序同 orders_default），搬移后 ATTACH
+        Integer moved = tx.execute(status -> {
+            jdbcTemplate.execute("CREATE TABLE " + name + " (LIKE orders_default INCLUDING DEFAULTS INCLUDING CONSTRAINTS)");
+            int n = jdbcTemplate.update("WITH moved AS (DELETE FROM orders_default "
+                    + "WHERE create_time >= ?::timestamp AND create_time < ?::timestamp RETURNING *) "
+                    + "INSERT INTO " + name + " SELECT * FROM moved", from, to);
+            jdbcTemplate.execute("ALTER TABLE orders ATTACH PARTITION " + name + bounds);
+            return n;
+        });
+        log.info("Orders partition created from default rows: {}, moved={}", name, moved);
+        return true;
+    }
+
+    /**
+     * DETACH 分区并删除其订单在 order_sn_keys 中的登记（同一事务），登记表不再指向 orders 中已不可见的行。
+     * 归档订单再次写入时按新订单重新登记并落入 orders_default，不与归档表冲突。
+     *
+     * @return 删除的登记数
+     */
+    private int detachMonth(String name) {
+        Integer purged = tx.execute(status -> {
+            jdbcTemplate.execute("ALTER TABLE orders DETACH PARTITION " + name);
+            return jdbcTemplate.update("DELETE FROM order_sn_keys k USING " + name + " o "
+                    + "WHERE k.order_sn = o.order_sn AND k.create_time = o.create_time");
+        });
+        return purged == null ? 0 : purged;
+    }
+
+    private List<String> listMonthPartitions() {
+        return jdbcTemplate.queryForList(
+                "SELECT c.relname FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid "
+                        + "WHERE i.inhparent = to_regclass('orders') ORDER BY c.relname",
+                String.class);
+    }
+}
@@ -3,7 +3,9 @@ package com.nei10u.tip.service;
 import com.baomidou.mybatisplus.core.metadata.IPage;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.nei10u.tip.dto.OrderDto;
+import com.nei10u.tip.dto.OrderListItemDto;
 import com.nei10u.tip.model.Order;
+import com.nei10u.tip.vo.CursorPageVO;
 
 import java.util.List;
 
@@ -15,18 +17,33 @@ public interface OrderService {
     /**
      * 获取用户订单列表
      */
-    IPage<OrderDto> getOrders(int page, String userId);
+    IPage<OrderListItemDto> getOrders(int page, String userId);
 
     /**
      * 根据状态获取订单
      */
-    IPage<OrderDto> getOrdersByStatus(int page, String userId, List<Byte> statusList);
+    IPage<OrderListItemDto> getOrdersByStatus(int page, String userId, List<Byte> statusList);
+
+    /**
+     * 游标分页获取用户订单（不走 OFFSET；statusList 为空时不过滤状态）
+     *
+     * @param cursor    上一页返回的 nextCursor，第一页传空
+     * @param withTotal 是否统计总数（额外一次 COUNT）
+     */
+    CursorPageVO<OrderListItemDto> getOrdersByCursor(String userId, List<Byte> statusList, String cursor, int size,
+                                             boolean withTotal);
 
     /**
      * 批量插入或更新订单
      */
     int insertOrUpdateOrder(List<Order> orders);
 
+    /**
+     * 大批量插入或更新订单（COPY 进暂存表后一次合并），语义与 {@link #insertOrUpdateOrder} 相同；
+     * 用于首次接入/长窗口回填等大数据量场景
+     */
+    int bulkInsertOrUpdateOrder(List<Order> orders);
+
     /**
      * 根据订单号查询订单
      */
@@ -2,12 +2,11 @@ package com.nei10u.tip.service;
 
 import com.alibaba.fastjson2.JSONObject;
 import com.nei10u.tip.mapper.OrderMapper;
+import com.nei10u.tip.vo.UserEarningsOverviewVO;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
-import java.util.Arrays;
-import java.util.List;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 
@@ -20,51 +19,49 @@ import java.time.format.DateTimeFormatter;
 public class StatisticsService {
 
     private final OrderMapper orderMapper;
+    private final UserEarningsSummaryService userEarningsSummaryService;
+    private final UserSummaryCache userSummaryCache;
     private static final DateTimeFormatter PAY_MONTH_KEY_FMT = DateTimeFormatter.ofPattern("yyyyMMdd");
 
     /**
      * 获取用户统计概览
+     * <p>
+     * 前置 {@link UserSummaryCache}（本地 + Redis，写入提交后按 userId 精确失效）；
+     * 回源优先读 user_earnings_summary（一次索引读），未启用或该用户尚无汇总行时回退到 orders 单次 FILTER 聚合。
      */
     public JSONObject getUserSummary(Long userId) {
-        JSONObject result = new JSONObject();
-
-        // 1. 订单总数 (所有状态)
-        Integer totalOrders = userId == null ? 0 : orderMapper.countOrdersByStatus(userId, null);
-        result.put("totalOrders", totalOrders);
-
-        // 2. 有效订单数 (已结算 + 已付款)
-        // order_status 为内部标准化状态：1-已支付，2-已结算
-        List<Byte> validStatus = Arrays.asList((byte) 1, (byte) 2);
-        Integer validOrders = userId == null ? 0 : orderMapper.countOrdersByStatus(userId, validStatus);
-        result.put("validOrders", validOrders);
-
-        // 3. 预估总收入 (所有状态)
-        Double totalIncome = userId == null ? 0.0d : orderMapper.sumShareFeeByStatus(userId, null);
-        result.put("totalEstimateIncome", totalIncome);
-
-        // 4. 已结算收入
-        List<Byte> settledStatus = Arrays.asList((byte) 2);
-        Double settledIncome = userId == null ? 0.0d : orderMapper.sumShareFeeByStatus(userId, settledStatus);
-        result.put("settledIncome", settledIncome);
-
-        // 5. payMonth 维度：本月/下月/待入账（按“下一个 20 号”为本月结算窗口）
-        if (userId != null) {
-            String currentKey = currentPayMonthKey();
-            String nextKey = nextPayMonthKey(currentKey);
-            result.put("currentMonthKey", currentKey);
-            result.put("nextMonthKey", nextKey);
+        return userSummaryCache.get(userId, this::loadUserSummary);
+    }
 
-            Double currentMonthReceivable = orderMapper.sumReceivableByPayMonth(userId, currentKey);
-            Double nextMonthReceivable = orderMapper.sumReceivableByPayMonth(userId, nextKey);
-            Double toBeReceive = orderMapper.sumToBeReceiveAfterPayMonth(userId, nextKey);
-            Double creditedTotal = orderMapper.sumCreditedFee(userId);
+    private JSONObject loadUserSummary(Long userId) {
+        JSONObject result = new JSONObject();
+        if (userId == null) {
+            result.put("totalOrders", 0);
+            result.put("validOrders", 0);
+            result.put("totalEstimateIncome", 0.0d);
+            result.put("settledIncome", 0.0d);
+            return result;
+        }
 
-            result.put("currentMonthReceivable", currentMonthReceivable);
-            result.put("nextMonthReceivable", nextMonthReceivable);
-            result.put("toBeReceive", toBeReceive);
-            result.put("creditedTotal", creditedTotal);
+        // payMonth 维度：本月/下月/待入账（按“下一个 20 号”为本月结算窗口）
+        String currentKey = currentPayMonthKey();
+        String nextKey = nextPayMonthKey(currentKey);
+        UserEarningsOverviewVO overview = userEarningsSummaryService.getOverview(userId, currentKey, nextKey);
+        if (overview == null) {
+            overview = orderMapper.selectUserSummary(userId, currentKey, nextKey);
         }
 
+        // 有效订单：order_status 为内部标准化状态 1-已支付，2-已结算；已结算收入：order_status = 2
+        result.put("totalOrders", overview.getTotalOrders());
+        result.put("validOrders", overview.getValidOrders());
+        result.put("totalEstimateIncome", overview.getTotalEstimateIncome());
+        result.put("settledIncome", overview.getSettledIncome());
+        result.put("currentMonthKey", currentKey);
+        result.put("nextMonthKey", nextKey);
+        result.put("currentMonthReceivable", overview.getCurrentMonthReceivable());
+        result.put("nextMonthReceivable", overview.getNextMonthReceivable());
+        result.put("toBeReceive", overview.getToBeReceive());
+        result.put("creditedTotal", overview.getCreditedTotal());
         return result;
     }
 
@@ -0,0 +1,171 @@
+package com.nei10u.tip.service;
+
+import com.nei10u.tip.mapper.UserEarningsSummaryMapper;
+import com.nei10u.tip.vo.UserEarningsOverviewVO;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.*;
+
+/**
+ * 用户收益汇总（user_earnings_summary）维护与读取。
+ * <p>
+ * - 读：{@link #getOverview} 单用户一次主键范围聚合，替代 orders 上的多条聚合查询
+ * - 写：订单落库/结算/退款/处罚写入后，按“涉及用户”从 orders 重算该用户全部分桶；
+ *   在外层事务提交后以独立事务执行（失败不影响订单写入，只记日志，由重建任务修复），随后失效 {@link UserSummaryCache}；
+ *   重算前按用户加 advisory lock：并发的回填切片/结算分区刷新同一用户时串行执行，旧快照不会覆盖新结果
+ * - 重建：{@link #rebuild} 按用户分批重算，统计漂移分桶数并修复
+ * <p>
+ * 用户汇总行总是整用户重算，不存在“部分分桶”；无汇总行的用户由调用方回退实时聚合。
+ */
+@Slf4j
+@Service
+public class UserEarningsSummaryService {
+
+    private static final int REFRESH_BATCH = 500;
+
+    private final UserEarningsSummaryMapper summaryMapper;
+    private final MeterRegistry meterRegistry;
+    private final UserSummaryCache userSummaryCache;
+    private final TransactionTemplate refreshTx;
+    private final boolean enabled;
+    private final int rebuildBatchSize;
+
+    public record RebuildReport(int users, int driftBuckets, int orphanRows, long costMs) {
+    }
+
+    public UserEarningsSummaryService(UserEarningsSummaryMapper summaryMapper,
+                                      MeterRegistry meterRegistry,
+                                      UserSummaryCache userSummaryCache,
+                                      PlatformTransactionManager transactionManager,
+                                      @Value("${app.statistics.summary.enabled:true}") boolean enabled,
+                                      @Value("${app.statistics.summary.rebuild-batch-size:500}") int rebuildBatchSize) {
+        this.summaryMapper = summaryMapper;
+        this.meterRegistry = meterRegistry;
+        this.userSummaryCache = userSummaryCache;
+        this.refreshTx = new TransactionTemplate(transactionManager);
+        this.refreshTx.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.enabled = enabled;
+        this.rebuildBatchSize = Math.max(1, rebuildBatchSize);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * 读取用户收益概览。
+     *
+     * @return 未启用、读取失败或该用户尚无汇总行时返回 null（调用方回退实时聚合）
+     */
+    public UserEarningsOverviewVO getOverview(Long userId, String currentKey, String nextKey) {
+        if (!enabled || userId == null) return null;
+        try {
+            UserEarningsOverviewVO vo = summaryMapper.selectOverview(userId, currentKey, nextKey);
+            if (vo == null || vo.getBucketCount() == null || vo.getBucketCount() == 0) return null;
+            return vo;
+        } catch (Exception e) {
+            log.warn("Read user_earnings_summary failed, fallback to live aggregate: userId={}", userId, e);
+            return null;
+        }
+    }
+
+    /**
+     * 订单写入后重算涉及用户的汇总：处于事务中时注册到提交之后执行，否则立即执行。
+     */
+    public void refreshUsersAfterCommit(Collection<Long> userIds) {
+        if (userIds == null || userIds.isEmpty()) return;
+        Set<Long> ids = new TreeSet<>();
+        for (Long id : userIds) {
+            if (id != null) ids.add(id);
+        }
+        if (ids.isEmpty()) return;
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    refreshAndEvict(ids);
+                }
+            });
+        } else {
+            refreshAndEvict(ids);
+        }
+    }
+
+    /**
+     * 先重算汇总再失效概览缓存，避免失效后被旧汇总回填。
+     */
+    private void refreshAndEvict(Set<Long> ids) {
+        if (enabled) refreshUsers(ids);
+        userSummaryCache.invalidate(ids);
+    }
+
+    /**
+     * 退款/处罚按 ds_order_sn 批量更新后调用：定位归属用户并重算。
+     */
+    public void refreshByDsOrderSns(Collection<String> dsOrderSns) {
+        if (dsOrderSns == null || dsOrderSns.isEmpty()) return;
+        try {
+            refreshUsersAfterCommit(summaryMapper.listUserIdsByDsOrderSns(dsOrderSns));
+        } catch (Exception e) {
+            log.warn("Resolve users for user_earnings_summary failed: orders={}", dsOrderSns.size(), e);
+        }
+    }
+
+    /**
+     * 全量重建：按 user_id 升序分批，先统计漂移再重算；最后清理已无订单的用户。
+     */
+    public RebuildReport rebuild() {
+        long t0 = System.currentTimeMillis();
+        int users = 0;
+        int drift = 0;
+        long afterUserId = 0L;
+        while (true) {
+            List<Long> batch = summaryMapper.listOrderUserIds(afterUserId, rebuildBatchSize);
+            if (batch == null || batch.isEmpty()) break;
+
+            Integer d = refreshTx.execute(status -> {
+                summaryMapper.lockUsers(batch);
+                int n = summaryMapper.countDrift(batch);
+                if (n > 0) {
+                    summaryMapper.refreshUsers(batch);
+                    summaryMapper.deleteStaleBuckets(batch);
+                }
+                return n;
+            });
+            users += batch.size();
+            drift += d == null ? 0 : d;
+            afterUserId = batch.get(batch.size() - 1);
+            if (batch.size() < rebuildBatchSize) break;
+        }
+        Integer orphans = refreshTx.execute(status -> summaryMapper.deleteOrphanUsers());
+        int orphanRows = orphans == null ? 0 : orphans;
+
+        meterRegistry.counter("statistics.summary.drift").increment(drift + orphanRows);
+        return new RebuildReport(users, drift, orphanRows, System.currentTimeMillis() - t0);
+    }
+
+    private void refreshUsers(Set<Long> userIds) {
+        List<Long> all = new ArrayList<>(userIds);
+        for (int i = 0; i < all.size(); i += REFRESH_BATCH) {
+            List<Long> batch = all.subList(i, Math.min(all.size(), i + REFRESH_BATCH));
+            try {
+                refreshTx.executeWithoutResult(status -> {
+                    summaryMapper.lockUsers(batch);
+                    summaryMapper.refreshUsers(batch);
+                    summaryMapper.deleteStaleBuckets(batch);
+                });
+            } catch (Exception e) {
+                log.warn("Refresh user_earnings_summary failed: users={}", batch.size(), e);
+            }
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package com.nei10u.tip.service;
+
+import com.alibaba.fastjson2.JSON;
+import com.alibaba.fastjson2.JSONObject;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * 用户统计概览缓存：本地近端缓存（Caffeine）+ Redis 共享缓存。
+ * <p>
+ * - 读：本地 -> Redis -> loader（回源后同时写 Redis 与本地）；两级均为短 TTL，作为失效遗漏的兜底
+ * - 失效：订单落库/结算块/退款/处罚写入提交后按涉及 userId 删除 Redis 键，
+ *   并通过 Redis 频道广播，各实例清理本地缓存
+ * - 指标：statistics.summary.cache{result=local_hit|redis_hit|miss}
+ * <p>
+ * Redis 不可用时退化为本地缓存 + 回源，不影响接口可用性。
+ */
+@Slf4j
+@Component
+public class UserSummaryCache {
+
+    private static final String KEY_PREFIX = "stats:summary:";
+    private static final String INVALIDATE_CHANNEL = "stats:summary:invalidate";
+
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final RedisMessageListenerContainer listenerContainer;
+    private final Cache<Long, JSONObject> local;
+    private final boolean enabled;
+    private final long redisTtlSeconds;
+
+    private final Counter localHit;
+    private final Counter redisHit;
+    private final Counter miss;
+
+    public UserSummaryCache(RedisTemplate<String, Object> redisTemplate,
+                            RedisMessageListenerContainer listenerContainer,
+                            MeterRegistry meterRegistry,
+                            @Value("${app.statistics.summary-cache.enabled:true}") boolean enabled,
+                            @Value("${app.statistics.summary-cache.local-max-size:10000}") long localMaxSize,
+                            @Value("${app.statistics.summary-cache.local-ttl-seconds:10}") long localTtlSeconds,
+                            @Value("${app.statistics.summary-cache.redis-ttl-seconds:60}") long redisTtlSeconds) {
+        this.redisTemplate = redisTemplate;
+        this.listenerContainer = listenerContainer;
+        this.enabled = enabled;
+        this.redisTtlSeconds = Math.max(1, redisTtlSeconds);
+        this.local = Caffeine.newBuilder()
+                .maximumSize(Math.max(1, localMaxSize))
+                .expireAfterWrite(Duration.ofSeconds(Math.max(1, localTtlSeconds)))
+                .build();
+        this.localHit = meterRegistry.counter("statistics.summary.cache", "result", "local_hit");
+        this.redisHit = meterRegistry.counter("statistics.summary.cache", "result", "redis_hit");
+        this.miss = meterRegistry.counter("statistics.summary.cache", "result", "miss");
+    }
+
+    @PostConstruct
+    public void subscribe() {
+        if (!enabled) return;
+        listenerContainer.addMessageListener(this::onInvalidate, new ChannelTopic(INVALIDATE_CHANNEL));
+    }
+
+    /**
+     * 读取用户概览；返回的是缓存对象的副本，调用方可自由修改。
+     */
+    public JSONObject get(Long userId, Function<Long, JSONObject> loader) {
+        if (!enabled || userId == null) return loader.apply(userId);
+
+        JSONObject v = local.getIfPresent(userId);
+        if (v != null) {
+            localHit.increment();
+            return v.clone();
+        }
+
+        String key = KEY_PREFIX + userId;
+        try {
+            Object cached = redisTemplate.opsForValue().get(key);
+            if (cached instanceof String s && StringUtils.hasText(s)) {
+                v = JSON.parseObject(s);
+                local.put(userId, v);
+                redisHit.increment();
+                return v.clone();
+            }
+        } catch (Exception e) {
+            log.debug("Read user summary cache failed: userId={}", userId, e);
+        }
+
+        miss.increment();
+        v = loader.apply(userId);
+        if (v == null) return null;
+        local.put(userId, v.clone());
+        try {
+            redisTemplate.opsForValue().set(key, v.toJSONString(), redisTtlSeconds, TimeUnit.SECONDS);
+        } catch (Exception e) {
+            log.debug("Write user summary cache failed: userId={}", userId, e);
+        }
+        return v;
+    }
+
+    /**
+     * 失效指定用户（Redis 键 + 各实例本地缓存）。
+     */
+    public void invalidate(Collection<Long> userIds) {
+        if (!enabled || userIds == null || userIds.isEmpty()) return;
+        Set<Long> ids = userIds.stream().filter(Objects::nonNull).collect(Collectors.toCollection(TreeSet::new));
+        if (ids.isEmpty()) return;
+
+        local.invalidateAll(ids);
+        try {
+            redisTemplate.delete(ids.stream().map(id -> KEY_PREFIX + id).toList());
+            redisTemplate.convertAndSend(INVALIDATE_CHANNEL,
+                    ids.stream().map(String::valueOf).collect(Collectors.joining(",")));
+        } catch (Exception e) {
+            // 其他实例本地缓存由短 TTL 兜底
+            log.warn("Invalidate user summary cache failed: users={}", ids.size(), e);
+        }
+    }
+
+    private void onInvalidate(Message message, byte[] pattern) {
+        try {
+            Object body = redisTemplate.getValueSerializer().deserialize(message.getBody());
+            if (!(body instanceof String s)) return;
+            List<Long> ids = new ArrayList<>();
+            for (String part : s.split(",")) {
+                if (StringUtils.hasText(part)) ids.add(Long.parseLong(part.trim()));
+            }
+            local.invalidateAll(ids);
+        } catch (Exception e) {
+            log.debug("Handle user summary invalidation failed", e);
+        }
+    }
+}
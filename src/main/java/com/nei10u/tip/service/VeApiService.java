@@ -1,5 +1,6 @@
 package com.nei10u.tip.service;
 
+import com.nei10u.tip.http.UpstreamGuard;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
@@ -22,6 +23,8 @@ public class VeApiService {
 
     private final RestTemplate restTemplate;
 
+    private final UpstreamGuard upstreamGuard;
+
     @Value("${app.veapi.key:}")
     private String veKey;
 
@@ -74,7 +77,7 @@ public class VeApiService {
 
             String fullUrl = buildUrl(URL, params);
             log.info("Requesting VEAPI Full URL: {}", fullUrl);
-            return restTemplate.getForObject(fullUrl, String.class);
+            return upstreamGuard.call("ve", fullUrl, () -> restTemplate.getForObject(fullUrl, String.class));
         } catch (Exception e) {
             log.error("Failed to request VEAPI generalconvert", e);
             return null;
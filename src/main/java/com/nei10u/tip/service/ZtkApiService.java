@@ -1,5 +1,6 @@
 package com.nei10u.tip.service;
 
+import com.nei10u.tip.http.UpstreamGuard;
 import io.micrometer.common.util.StringUtils;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -24,6 +25,8 @@ public class ZtkApiService {
 
     private final RestTemplate restTemplate;
 
+    private final UpstreamGuard upstreamGuard;
+
     @Value("${app.ztk.api-key:}")
     private String apiKey;
 
@@ -358,7 +361,8 @@ public class ZtkApiService {
             log.info("Requesting ZTK API: {}", url);
 
             // 发送请求
-            String response = restTemplate.getForObject(fullUrl, String.class);
+            String response = upstreamGuard.call("ztk", UpstreamGuard.key(url, params),
+                    () -> restTemplate.getForObject(fullUrl, String.class));
             log.debug("ZTK API Response: {}", response);
 
             return response;
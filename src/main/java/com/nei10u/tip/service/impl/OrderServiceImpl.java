@@ -4,19 +4,24 @@ import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 import com.baomidou.mybatisplus.core.metadata.IPage;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.nei10u.tip.dto.OrderDto;
+import com.nei10u.tip.dto.OrderListItemDto;
+import com.nei10u.tip.exception.BusinessException;
 import com.nei10u.tip.mapper.OrderMapper;
 import com.nei10u.tip.model.Order;
+import com.nei10u.tip.ordersync.OrderCopyIngestor;
+import com.nei10u.tip.ordersync.OrderUserResolver;
+import com.nei10u.tip.ordersync.util.OrderFingerprintUtil;
 import com.nei10u.tip.service.OrderService;
-import com.nei10u.tip.service.UserService;
+import com.nei10u.tip.service.UserEarningsSummaryService;
+import com.nei10u.tip.vo.CursorPageVO;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.beans.BeanUtils;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.StringUtils;
 
-import java.util.List;
-import java.util.Map;
+import java.sql.SQLException;
+import java.util.*;
 import java.util.stream.Collectors;
 
 /**
@@ -29,30 +34,79 @@ public class OrderServiceImpl implements OrderService {
 
     private final OrderMapper orderMapper;
 
-    private final UserService userService;
+    private final OrderUserResolver orderUserResolver;
+
+    private final OrderCopyIngestor orderCopyIngestor;
+
+    private final UserEarningsSummaryService userEarningsSummaryService;
+
+    private static final int MAX_CURSOR_PAGE_SIZE = 100;
 
     @Override
-    public IPage<OrderDto> getOrders(int page, String userId) {
-        Page<Order> pageParam = new Page<>(page, 20);
+    public IPage<OrderListItemDto> getOrders(int page, String userId) {
+        Page<OrderListItemDto> pageParam = new Page<>(page, 20);
         Long uid = parseUserId(userId);
         if (uid == null) {
-            return new Page<OrderDto>(page, 20, 0);
+            return new Page<OrderListItemDto>(page, 20, 0);
         }
-        IPage<Order> orderPage = orderMapper.getOrdersByUserId(pageParam, uid);
+        // 列表只查展示列并直接映射为 OrderListItemDto，不构造 Order、不做逐行拷贝
+        return orderMapper.getOrdersByUserId(pageParam, uid);
+    }
 
-        return orderPage.convert(this::convertToDto);
+    @Override
+    public IPage<OrderListItemDto> getOrdersByStatus(int page, String userId, List<Byte> statusList) {
+        Page<OrderListItemDto> pageParam = new Page<>(page, 20);
+        Long uid = parseUserId(userId);
+        if (uid == null) {
+            return new Page<OrderListItemDto>(page, 20, 0);
+        }
+        return orderMapper.getOrdersByStatus(pageParam, uid, statusList);
     }
 
     @Override
-    public IPage<OrderDto> getOrdersByStatus(int page, String userId, List<Byte> statusList) {
-        Page<Order> pageParam = new Page<>(page, 20);
+    public CursorPageVO<OrderListItemDto> getOrdersByCursor(String userId, List<Byte> statusList, String cursor, int size,
+                                                    boolean withTotal) {
+        CursorPageVO<OrderListItemDto> result = new CursorPageVO<>();
         Long uid = parseUserId(userId);
         if (uid == null) {
-            return new Page<OrderDto>(page, 20, 0);
+            if (withTotal) result.setTotal(0L);
+            return result;
+        }
+        int limit = Math.min(Math.max(size, 1), MAX_CURSOR_PAGE_SIZE);
+
+        boolean hasCursor = StringUtils.hasText(cursor);
+        Date cursorTime = null;
+        Long cursorId = null;
+        if (hasCursor) {
+            // 游标格式：{create_time 毫秒}_{id}；create_time 为空时为 _{id}
+            int sep = cursor.indexOf('_');
+            try {
+                if (sep < 0) throw new NumberFormatException(cursor);
+                cursorTime = sep == 0 ? null : new Date(Long.parseLong(cursor.substring(0, sep)));
+                cursorId = Long.parseLong(cursor.substring(sep + 1));
+            } catch (NumberFormatException e) {
+                throw new BusinessException("INVALID_PARAM", "cursor格式错误");
+            }
         }
-        IPage<Order> orderPage = orderMapper.getOrdersByStatus(pageParam, uid, statusList);
 
-        return orderPage.convert(this::convertToDto);
+        // 多取一条判断是否还有下一页
+        List<OrderListItemDto> rows = orderMapper.listOrderItemsByCursor(uid, statusList, hasCursor, cursorTime,
+                cursorId, limit + 1);
+        boolean hasMore = rows.size() > limit;
+        if (hasMore) rows = rows.subList(0, limit);
+
+        result.setRecords(rows);
+        result.setHasMore(hasMore);
+        if (hasMore) {
+            OrderListItemDto last = rows.get(rows.size() - 1);
+            result.setNextCursor((last.getCreateTime() == null ? "" : String.valueOf(last.getCreateTime().getTime()))
+                    + "_" + last.getId());
+        }
+        if (withTotal) {
+            Integer total = orderMapper.countOrdersByStatus(uid, statusList);
+            result.setTotal(total == null ? 0L : total.longValue());
+        }
+        return result;
     }
 
     @Override
@@ -62,6 +116,62 @@ public class OrderServiceImpl implements OrderService {
             return 0;
         }
 
+        Map<String, Order> existingMap = prepareForUpsert(orders);
+
+        // 指纹未变化的已存在订单在 upsert 中被跳过，影响行数 = 新增 + 实际变更
+        int count = orderMapper.insertOrUpdateBatch(orders);
+
+        userEarningsSummaryService.refreshUsersAfterCommit(touchedUserIds(orders, existingMap));
+        long inserted = orders.stream().filter(o -> !existingMap.containsKey(o.getOrderSn())).count();
+        log.info("批量插入/更新订单完成, total={}, inserted={}, changed={}, unchanged={}",
+                orders.size(), inserted, Math.max(0, count - inserted), orders.size() - count);
+
+        return count;
+    }
+
+    @Override
+    @Transactional
+    public int bulkInsertOrUpdateOrder(List<Order> orders) {
+        if (orders == null || orders.isEmpty()) {
+            return 0;
+        }
+
+        // 同一订单号在一条 INSERT ... ON CONFLICT 中只能出现一次：保留最后一条
+        Map<String, Order> byOrderSn = new LinkedHashMap<>();
+        for (Order o : orders) {
+            if (o != null && StringUtils.hasText(o.getOrderSn())) byOrderSn.put(o.getOrderSn(), o);
+        }
+        List<Order> rows = new ArrayList<>(byOrderSn.values());
+        if (rows.isEmpty()) return 0;
+
+        Map<String, Order> existingMap = prepareForUpsert(rows);
+
+        long t0 = System.currentTimeMillis();
+        String batchId = UUID.randomUUID().toString();
+        long copied;
+        try {
+            copied = orderCopyIngestor.copy(batchId, rows);
+        } catch (SQLException e) {
+            throw new IllegalStateException("COPY orders_ingest_staging failed: batchId=" + batchId, e);
+        }
+        int count = orderMapper.mergeIngestBatch(batchId);
+        orderMapper.deleteIngestBatch(batchId);
+
+        userEarningsSummaryService.refreshUsersAfterCommit(touchedUserIds(rows, existingMap));
+        long inserted = rows.stream().filter(o -> !existingMap.containsKey(o.getOrderSn())).count();
+        log.info("批量导入订单完成(COPY), total={}, copied={}, inserted={}, changed={}, unchanged={}, costMs={}",
+                rows.size(), copied, inserted, Math.max(0, count - inserted), rows.size() - count,
+                System.currentTimeMillis() - t0);
+
+        return count;
+    }
+
+    /**
+     * upsert 前置处理：查询已存在订单、解析归属用户、固定 create_time、补齐指纹。
+     *
+     * @return orderSn -> 库中已存在的订单
+     */
+    private Map<String, Order> prepareForUpsert(List<Order> orders) {
         // 1. 查询库中已存在的订单 (Status Change Detection)
         List<String> orderSns = orders.stream().map(Order::getOrderSn).toList();
         // 注意：Order 主键是 Long id，不能用 selectBatchIds 传 orderSn（String）。
@@ -73,16 +183,11 @@ public class OrderServiceImpl implements OrderService {
         Map<String, Order> existingMap = existingList.stream()
                 .collect(Collectors.toMap(Order::getOrderSn, o -> o, (a, b) -> a));
 
-        // 2. 批量查找用户 (sid -> userId)
-        // 这一步比较耗时，可以选择缓存或批量查询优化。
-        // 这里简单遍历处理，因为 orders 批次通常仅 100 条。
+        // 2. 批量解析归属用户（relationId / specialId / sid -> userId）：每种键一条 IN 查询 + 本地缓存
+        Map<String, Long> resolvedUserIds = orderUserResolver.resolve(orders);
 
         for (Order newOrder : orders) {
-            // TODO: 解析 sid 对应的 User (关联 ID 或 专享 ID)
-            // 这里假设 sid 主要是 relationId (淘宝) 或 pddPid (拼多多)
-            // 简单逻辑：尝试查找用户。
-
-            Long resolvedUserId = resolveUserId(newOrder);
+            Long resolvedUserId = resolvedUserIds.get(newOrder.getOrderSn());
             if (resolvedUserId != null) {
                 newOrder.setUserId(resolvedUserId);
             }
@@ -95,55 +200,60 @@ public class OrderServiceImpl implements OrderService {
                 if (newOrder.getUserId() == null) {
                     newOrder.setUserId(oldOrder.getUserId());
                 }
+                // create_time 是分区键且属于 upsert 冲突目标 (order_sn, create_time)：固定为首次落库值
+                newOrder.setCreateTime(oldOrder.getCreateTime());
                 // 新订单：仅同步落库；结算/入账由独立的结算任务处理
             }
+            if (newOrder.getCreateTime() == null) {
+                newOrder.setCreateTime(new Date());
+            }
+            // 各平台同步映射时已计算指纹；兜底补齐（userId 不参与指纹，由 upsert 单独比较）
+            if (newOrder.getFingerprint() == null) {
+                newOrder.setFingerprint(OrderFingerprintUtil.of(newOrder));
+            }
         }
 
-        int count = orderMapper.insertOrUpdateBatch(orders);
-        log.info("批量插入/更新订单完成, count={}", count);
-
-        return count;
+        registerNewOrderSns(orders, existingMap);
+        return existingMap;
     }
 
-    private Long resolveUserId(Order order) {
-        if (order == null) return null;
+    /**
+     * 新订单先登记订单号（order_sn_keys），create_time 固定为登记值：
+     * 分区表上没有 UNIQUE(order_sn)，并发写入同一新订单（create_time 不同）时由登记表保证只落一行。
+     */
+    private void registerNewOrderSns(List<Order> orders, Map<String, Order> existingMap) {
+        Map<String, Order> fresh = new LinkedHashMap<>();
+        for (Order o : orders) {
+            if (!existingMap.containsKey(o.getOrderSn())) fresh.putIfAbsent(o.getOrderSn(), o);
+        }
+        if (fresh.isEmpty()) return;
 
-        // 1) TB 优先走拆分字段（更可审计，且避免 sid 混合口径）
-        if (order.getRelationId() != null) {
-            com.nei10u.tip.dto.UserDto user = userService.getUserByRelationId(order.getRelationId());
-            if (user != null) return user.getId();
+        Map<String, Date> registered = new HashMap<>();
+        for (Order k : orderMapper.registerOrderSnKeys(new ArrayList<>(fresh.values()))) {
+            registered.put(k.getOrderSn(), k.getCreateTime());
         }
-        if (order.getSpecialId() != null) {
-            com.nei10u.tip.dto.UserDto user = userService.getUserBySpecialId(order.getSpecialId());
-            if (user != null) return user.getId();
+        for (Order o : orders) {
+            Date createTime = registered.get(o.getOrderSn());
+            if (createTime != null) o.setCreateTime(createTime);
         }
+    }
 
-        // 简单策略：根据 sid 查 User
-        // 实际业务中 sid 可能是 relationId(Long) 也可能是 String
-        if (!org.springframework.util.StringUtils.hasText(order.getSid()))
-            return null;
-        try {
-            // 尝试当作 relationId
-            Long relationId = Long.parseLong(order.getSid());
-            com.nei10u.tip.dto.UserDto user = userService.getUserByRelationId(relationId);
-            if (user != null)
-                return user.getId();
-
-            // 尝试当作 specialId
-            user = userService.getUserBySpecialId(relationId);
-            if (user != null)
-                return user.getId();
-        } catch (NumberFormatException e) {
-            // 解析失败，可能是 pddPid / unionId 等字符串
-            com.nei10u.tip.dto.UserDto user = userService.getUserByPddPid(order.getSid());
-            if (user != null) return user.getId();
-            // 京东：可能写入 jdAuthId（字符串）
-            user = userService.getUserByJdAuthId(order.getSid());
-            if (user != null) return user.getId();
-            user = userService.getUserByUnionId(order.getSid());
-            if (user != null) return user.getId();
-        }
-        return null;
+    /**
+     * 与 upsert 跳过条件同口径收集涉及用户（归属变更时新旧用户都要重算），用于提交后刷新收益汇总。
+     */
+    private static Set<Long> touchedUserIds(List<Order> orders, Map<String, Order> existingMap) {
+        Set<Long> touchedUserIds = new HashSet<>();
+        for (Order newOrder : orders) {
+            Order oldOrder = existingMap.get(newOrder.getOrderSn());
+            if (oldOrder != null && oldOrder.getFingerprint() != null && newOrder.getFingerprint() != null
+                    && oldOrder.getFingerprint().equals(newOrder.getFingerprint())
+                    && Objects.equals(oldOrder.getUserId(), newOrder.getUserId())) {
+                continue;
+            }
+            touchedUserIds.add(newOrder.getUserId());
+            if (oldOrder != null) touchedUserIds.add(oldOrder.getUserId());
+        }
+        return touchedUserIds;
     }
 
     private Long parseUserId(String userId) {
@@ -161,12 +271,43 @@ public class OrderServiceImpl implements OrderService {
         return convertToDto(order);
     }
 
-    private OrderDto convertToDto(Order order) {
+    /**
+     * Order -> OrderDto（详情接口使用；基准见 src/jmh/java OrderListMappingBenchmark）
+     */
+    public static OrderDto convertToDto(Order order) {
         if (order == null) {
             return null;
         }
+        // 手写字段拷贝，替代反射式 BeanUtils.copyProperties（列表每行都会调用）
         OrderDto dto = new OrderDto();
-        BeanUtils.copyProperties(order, dto);
+        dto.setId(order.getId());
+        dto.setUserId(order.getUserId());
+        dto.setOrderSn(order.getOrderSn());
+        dto.setDsOrderSn(order.getDsOrderSn());
+        dto.setOrderTitle(order.getOrderTitle());
+        dto.setImg(order.getImg());
+        dto.setSid(order.getSid());
+        dto.setTypeNo(order.getTypeNo());
+        dto.setTypeName(order.getTypeName());
+        dto.setOrderPrice(order.getOrderPrice());
+        dto.setPayPrice(order.getPayPrice());
+        dto.setShareRate(order.getShareRate());
+        dto.setShareFee(order.getShareFee());
+        dto.setUnionPlatform(order.getUnionPlatform());
+        dto.setGrossShareFee(order.getGrossShareFee());
+        dto.setBaseDeductionRate(order.getBaseDeductionRate());
+        dto.setBaseDeductionFee(order.getBaseDeductionFee());
+        dto.setPlatformProfitRate(order.getPlatformProfitRate());
+        dto.setPlatformProfitFee(order.getPlatformProfitFee());
+        dto.setUserDiscount(order.getUserDiscount());
+        dto.setOrderDiscount(order.getOrderDiscount());
+        dto.setOrderStatus(order.getOrderStatus());
+        dto.setStatusContent(order.getStatusContent());
+        dto.setCreateTime(order.getCreateTime());
+        dto.setPayTime(order.getPayTime());
+        dto.setEarnTime(order.getEarnTime());
+        dto.setPayMonth(order.getPayMonth());
+        dto.setEstimateDate(order.getEstimateDate());
         return dto;
     }
 }
@@ -4,6 +4,7 @@ import com.nei10u.tip.dto.UserDto;
 import com.nei10u.tip.exception.BusinessException;
 import com.nei10u.tip.mapper.UserMapper;
 import com.nei10u.tip.model.User;
+import com.nei10u.tip.ordersync.OrderUserResolver;
 import com.nei10u.tip.service.UserService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -19,6 +20,7 @@ import org.springframework.transaction.annotation.Transactional;
 public class UserServiceImpl implements UserService {
 
     private final UserMapper userMapper;
+    private final OrderUserResolver orderUserResolver;
 
     @Override
     @Transactional
@@ -100,10 +102,14 @@ public class UserServiceImpl implements UserService {
     @Override
     @Transactional
     public int updatePddPid(Long userId, String pddPid) {
+        User old = userMapper.selectById(userId);
         User user = new User();
         user.setId(userId);
         user.setPddPid(pddPid);
-        return userMapper.updateById(user);
+        int updated = userMapper.updateById(user);
+        // 订单归属缓存：新 pid 可能命中负缓存，旧 pid 仍指向该用户
+        orderUserResolver.invalidateUserAfterCommit(userId, pddPid, old == null ? null : old.getPddPid());
+        return updated;
     }
 
     @Override
@@ -121,6 +127,9 @@ public class UserServiceImpl implements UserService {
         if (user == null) {
             throw new BusinessException("USER_NOT_FOUND", "用户不存在");
         }
+        Object oldRelationId = user.getRelationId();
+        Object oldPddPid = user.getPddPid();
+        Object oldJdAuthId = user.getJdAuthId();
 
         switch (platform.toLowerCase()) {
             case "tb":
@@ -146,7 +155,10 @@ public class UserServiceImpl implements UserService {
                 throw new BusinessException("INVALID_PLATFORM", "不支持的平台");
         }
 
-        return userMapper.updateById(user) > 0;
+        boolean updated = userMapper.updateById(user) > 0;
+        // 订单归属缓存：新旧渠道 ID 均失效（提交后执行，避免并发同步在提交前读回旧绑定）
+        orderUserResolver.invalidateUserAfterCommit(userId, authId, oldRelationId, oldPddPid, oldJdAuthId);
+        return updated;
     }
 
     @Override
@@ -0,0 +1,555 @@
+package com.nei10u.tip.settlement;
+
+import com.nei10u.tip.mapper.MoneyChangeMapper;
+import com.nei10u.tip.mapper.MoneyMapper;
+import com.nei10u.tip.mapper.OrderMapper;
+import com.nei10u.tip.mapper.SettlementCheckpointMapper;
+import com.nei10u.tip.model.Money;
+import com.nei10u.tip.model.MoneyChange;
+import com.nei10u.tip.model.Order;
+import com.nei10u.tip.model.SettlementCheckpoint;
+import com.nei10u.tip.ordersync.util.OrderSyncParseUtil;
+import com.nei10u.tip.service.UserEarningsSummaryService;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.ibatis.cursor.Cursor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.*;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongConsumer;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * 月度结算对账引擎：将 orders.credited_fee 收敛到“应入账金额 desiredCredit”。
+ * <p>
+ * 执行方式：
+ * - 分区：按 MOD(user_id, K) 切成 K 个分区，在有界线程池上并行；同一用户只属于一个分区，余额更新互不争用
+ * - 读：每个分区在只读事务内用服务端游标流式读取候选订单（SQL 已预过滤 desired != credited_fee），内存只保留一个块
+ * - 写：每 chunkSize 个订单为一个独立事务（REQUIRES_NEW）提交：
+ *   money_change 多行幂等插入 -> 本次实际插入的流水按用户聚合，每用户一次余额更新 -> credited_fee 批量回写
+ * - 每块记录吞吐（orders/s）；断点（settlement_checkpoint）与块同事务提交，同一批次崩溃后按分区续跑
+ * <p>
+ * 幂等策略（与原实现一致）：
+ * - uuid = "10:{orderSn}:{oldCredited}->{desired}"，保证相同状态下重复跑不会重复入账
+ * - 即使某块提交失败，下次运行该块订单仍满足预过滤条件，会被重新处理
+ */
+@Slf4j
+@Component
+public class MoneyReconcileEngine {
+
+    private final OrderMapper orderMapper;
+    private final MoneyMapper moneyMapper;
+    private final MoneyChangeMapper moneyChangeMapper;
+    private final SettlementCheckpointMapper checkpointMapper;
+    private final SettlementProperties props;
+    private final UserEarningsSummaryService userEarningsSummaryService;
+
+    private final TransactionTemplate readTx;
+    private final TransactionTemplate chunkTx;
+
+    private static final DateTimeFormatter RUN_KEY_FMT = DateTimeFormatter.ofPattern("yyyyMMdd");
+
+    public MoneyReconcileEngine(OrderMapper orderMapper,
+                                MoneyMapper moneyMapper,
+                                MoneyChangeMapper moneyChangeMapper,
+                                SettlementCheckpointMapper checkpointMapper,
+                                SettlementProperties props,
+                                UserEarningsSummaryService userEarningsSummaryService,
+                                PlatformTransactionManager transactionManager) {
+        this.orderMapper = orderMapper;
+        this.moneyMapper = moneyMapper;
+        this.moneyChangeMapper = moneyChangeMapper;
+        this.checkpointMapper = checkpointMapper;
+        this.props = props;
+        this.userEarningsSummaryService = userEarningsSummaryService;
+
+        this.readTx = new TransactionTemplate(transactionManager);
+        this.readTx.setReadOnly(true);
+        this.chunkTx = new TransactionTemplate(transactionManager);
+        this.chunkTx.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * 单分区运行结果。
+     *
+     * @param resumedFromId 本次游标起点（断点续跑时 > 0）
+     * @param skipped       断点显示该分区本批次已完成，直接跳过
+     * @param error         分区执行异常（游标读取失败等），已提交的块不受影响
+     */
+    public record PartitionReport(int partition, long resumedFromId, boolean skipped, boolean error,
+                                  long scannedOrders, long changedOrders, long postedChanges,
+                                  int chunks, int failedChunks, long costMs) {
+    }
+
+    /**
+     * @param scannedOrders 游标读出的候选订单数
+     * @param changedOrders 回写 credited_fee 的订单数
+     * @param postedChanges 本次实际插入并动余额的流水数（其余为幂等跳过）
+     * @param chunks        提交块数
+     * @param failedChunks  提交失败的块数（整块回滚，下次运行重新处理）
+     */
+    public record ReconcileReport(String runKey, int partitions, long scannedOrders, long changedOrders,
+                                  long postedChanges, int chunks, int failedChunks, long costMs,
+                                  List<PartitionReport> partitionReports) {
+    }
+
+    public ReconcileReport reconcile() {
+        long t0 = System.currentTimeMillis();
+        int k = Math.max(1, props.getPartitions());
+        String runKey = "MONTHLY:" + LocalDate.now().format(RUN_KEY_FMT) + ":K" + k;
+        Map<Integer, SettlementCheckpoint> checkpoints = loadCheckpoints(runKey);
+
+        int parallelism = Math.min(k, Math.max(1, props.getParallelism()));
+        log.info("Monthly reconcile start: runKey={}, partitions={}, parallelism={}, resumed={}",
+                runKey, k, parallelism, checkpoints.size());
+
+        List<PartitionReport> reports = new ArrayList<>(k);
+        ExecutorService pool = Executors.newFixedThreadPool(parallelism, namedThreadFactory());
+        try {
+            List<Future<PartitionReport>> futures = new ArrayList<>(k);
+            for (int p = 0; p < k; p++) {
+                int partition = p;
+                SettlementCheckpoint cp = checkpoints.get(partition);
+                futures.add(pool.submit(() -> runPartition(runKey, k, partition, cp)));
+            }
+            for (int p = 0; p < k; p++) {
+                try {
+                    reports.add(futures.get(p).get());
+                } catch (ExecutionException e) {
+                    log.error("Monthly reconcile partition {} failed: runKey={}", p, runKey, e.getCause());
+                    reports.add(new PartitionReport(p, 0L, false, true, 0, 0, 0, 0, 0, 0));
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            pool.shutdownNow();
+            log.warn("Monthly reconcile interrupted: runKey={}", runKey);
+        } finally {
+            pool.shutdown();
+        }
+
+        long scanned = 0, changed = 0, posted = 0;
+        int chunks = 0, failedChunks = 0;
+        for (PartitionReport r : reports) {
+            scanned += r.scannedOrders();
+            changed += r.changedOrders();
+            posted += r.postedChanges();
+            chunks += r.chunks();
+            failedChunks += r.failedChunks();
+            log.info("Monthly reconcile partition: {}", r);
+        }
+        return new ReconcileReport(runKey, k, scanned, changed, posted, chunks, failedChunks,
+                System.currentTimeMillis() - t0, reports);
+    }
+
+    /**
+     * 单分区：独立只读事务 + 游标；同一用户的订单只落在一个分区，分区之间的余额更新互不争用。
+     */
+    private PartitionReport runPartition(String runKey, int k, int partition, SettlementCheckpoint cp) {
+        long t0 = System.currentTimeMillis();
+        if (cp != null && Boolean.TRUE.equals(cp.getDone())) {
+            return new PartitionReport(partition, cp.getLastId() == null ? 0L : cp.getLastId(), true, false,
+                    0, 0, 0, 0, 0, 0);
+        }
+        long afterId = (cp == null || cp.getLastId() == null) ? 0L : cp.getLastId();
+        PartitionCounters c = new PartitionCounters(runKey, partition);
+        int chunkSize = Math.max(1, props.getChunkSize());
+
+        readTx.executeWithoutResult(status -> {
+            try (Cursor<Order> cursor = orderMapper.streamReconcileCandidates(afterId, k, partition, minCreateTime())) {
+                List<Order> chunk = new ArrayList<>(chunkSize);
+                for (Order order : cursor) {
+                    c.scanned++;
+                    chunk.add(order);
+                    if (chunk.size() >= chunkSize) {
+                        commitChunk(chunk, c);
+                        chunk.clear();
+                    }
+                }
+                if (!chunk.isEmpty()) commitChunk(chunk, c);
+            } catch (java.io.IOException e) {
+                throw new IllegalStateException("Close reconcile cursor failed", e);
+            }
+        });
+
+        // 有失败块时不标记完成：同一批次续跑会从最后一个连续成功的块之后重新扫描
+        if (c.failedChunks == 0) saveCheckpoint(runKey, partition, c.lastCommittedId, true);
+        return new PartitionReport(partition, afterId, false, false, c.scanned, c.changed, c.posted,
+                c.chunks, c.failedChunks, System.currentTimeMillis() - t0);
+    }
+
+    private void commitChunk(List<Order> orders, PartitionCounters c) {
+        long t0 = System.nanoTime();
+        c.chunks++;
+        long maxId = orders.get(orders.size() - 1).getId();
+        int[] result;
+        try {
+            result = chunkTx.execute(status -> {
+                int[] r = applyChunk(orders);
+                // 断点与本块写入同事务提交；出现失败块后断点不再前进
+                if (c.failedChunks == 0) saveCheckpoint(c.runKey, c.partition, maxId, false);
+                return r;
+            });
+        } catch (Exception e) {
+            // 整块已回滚；流水 uuid 幂等，下次运行会重新处理这些订单
+            c.failedChunks++;
+            log.error("Monthly reconcile chunk failed: partition={}, chunk#{}, orders={}, firstId={}",
+                    c.partition, c.chunks, orders.size(), orders.get(0).getId(), e);
+            return;
+        }
+        long costNanos = Math.max(1L, System.nanoTime() - t0);
+
+        if (c.failedChunks == 0) c.lastCommittedId = maxId;
+        c.changed += result[0];
+        c.posted += result[1];
+        log.info("Monthly reconcile chunk: partition={}, chunk#{}, orders={}, changed={}, posted={}, costMs={}, ordersPerSec={}",
+                c.partition, c.chunks, orders.size(), result[0], result[1], costNanos / 1_000_000,
+                String.format(Locale.ROOT, "%.1f", orders.size() / (costNanos / 1_000_000_000.0d)));
+    }
+
+    private static final class PartitionCounters {
+        final String runKey;
+        final int partition;
+        long scanned;
+        long changed;
+        long posted;
+        int chunks;
+        int failedChunks;
+        long lastCommittedId;
+
+        PartitionCounters(String runKey, int partition) {
+            this.runKey = runKey;
+            this.partition = partition;
+        }
+    }
+
+    private Map<Integer, SettlementCheckpoint> loadCheckpoints(String runKey) {
+        if (!props.isCheckpointEnabled()) return Collections.emptyMap();
+        try {
+            checkpointMapper.deleteBefore(
+                    OrderSyncParseUtil.toDate(LocalDateTime.now().minusDays(Math.max(1, props.getCheckpointRetainDays()))));
+            Map<Integer, SettlementCheckpoint> map = new HashMap<>();
+            for (SettlementCheckpoint cp : checkpointMapper.listByRunKey(runKey)) {
+                if (cp.getPartitionNo() != null) map.put(cp.getPartitionNo(), cp);
+            }
+            return map;
+        } catch (Exception e) {
+            // 断点不可用时从头扫描：候选预过滤 + uuid 幂等保证结果不变
+            log.warn("Load settlement_checkpoint failed, run from scratch: runKey={}", runKey, e);
+            return Collections.emptyMap();
+        }
+    }
+
+    private void saveCheckpoint(String runKey, int partition, long lastId, boolean done) {
+        if (!props.isCheckpointEnabled()) return;
+        SettlementCheckpoint cp = new SettlementCheckpoint();
+        cp.setRunKey(runKey);
+        cp.setPartitionNo(partition);
+        cp.setLastId(lastId);
+        cp.setDone(done);
+        if (done) {
+            // 分区收尾在块事务之外，失败只影响续跑效率
+            try {
+                checkpointMapper.save(cp);
+            } catch (Exception e) {
+                log.warn("Save settlement_checkpoint failed: runKey={}, partition={}", runKey, partition, e);
+            }
+        } else {
+            checkpointMapper.save(cp);
+        }
+    }
+
+    private static ThreadFactory namedThreadFactory() {
+        AtomicInteger seq = new AtomicInteger();
+        return r -> {
+            Thread t = new Thread(r, "settlement-partition-" + seq.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        };
+    }
+
+    /**
+     * 预演结果。
+     *
+     * @param orders     需要调整 credited_fee 的订单数
+     * @param users      涉及用户数
+     * @param totalDelta 全部订单 delta 之和（正为入账、负为冲账）
+     */
+    public record DryRunReport(Path file, long orders, long users, BigDecimal totalDelta, long costMs) {
+    }
+
+    /**
+     * 预演：与正式结算同一候选集与口径，只读不写；逐单与每用户小计流式写入 gzip CSV。
+     * <p>
+     * 候选按 (user_id, id) 排序，用户切换时输出上一用户小计，内存占用与订单量无关。
+     * CSV 列：record_type,user_id,order_id,order_sn,old_credited,desired_credit,delta,order_count
+     * - ORDER：逐单（order_count 为空）
+     * - USER：用户小计（order_id/order_sn 为空）
+     *
+     * @param progress 每处理一个订单回调一次已处理订单数（可为 null）
+     */
+    public DryRunReport dryRun(Path file, LongConsumer progress) throws IOException {
+        long t0 = System.currentTimeMillis();
+        DryRunWriter w = new DryRunWriter(file);
+        try (w) {
+            w.line("record_type,user_id,order_id,order_sn,old_credited,desired_credit,delta,order_count");
+            readTx.executeWithoutResult(status -> {
+                try (Cursor<Order> cursor = orderMapper.streamReconcileCandidatesByUser(minCreateTime())) {
+                    for (Order order : cursor) {
+                        w.order(order);
+                        if (progress != null) progress.accept(w.orders);
+                    }
+                    w.flushUser();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        return new DryRunReport(file, w.orders, w.users, w.total, System.currentTimeMillis() - t0);
+    }
+
+    /**
+     * 预演 CSV 写出：FileChannel -> gzip -> 缓冲字符流，常量内存。
+     */
+    private static final class DryRunWriter implements AutoCloseable {
+        private final Writer out;
+        long orders;
+        long users;
+        BigDecimal total = BigDecimal.ZERO;
+
+        private Long currentUser;
+        private long userOrders;
+        private BigDecimal userOld = BigDecimal.ZERO;
+        private BigDecimal userDesired = BigDecimal.ZERO;
+        private BigDecimal userDelta = BigDecimal.ZERO;
+
+        DryRunWriter(Path file) throws IOException {
+            FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+            this.out = new BufferedWriter(new OutputStreamWriter(
+                    new GZIPOutputStream(Channels.newOutputStream(channel), 64 * 1024), StandardCharsets.UTF_8),
+                    64 * 1024);
+        }
+
+        void order(Order order) {
+            if (order.getUserId() == null) return;
+            double oldCredited = order.getCreditedFee() == null ? 0.0d : order.getCreditedFee();
+            double desiredCredit = computeDesiredCredit(order);
+            // 与 applyChunk 同口径判断是否需要调整
+            boolean needWriteCredited = Math.abs(desiredCredit - oldCredited) >= 0.01d
+                    || (order.getCreditedFee() == null && desiredCredit != 0.0d);
+            if (!needWriteCredited) return;
+            BigDecimal old = money(oldCredited);
+            BigDecimal desired = money(desiredCredit);
+            BigDecimal delta = desired.subtract(old);
+
+            if (!order.getUserId().equals(currentUser)) {
+                flushUser();
+                currentUser = order.getUserId();
+            }
+            userOrders++;
+            userOld = userOld.add(old);
+            userDesired = userDesired.add(desired);
+            userDelta = userDelta.add(delta);
+            orders++;
+            total = total.add(delta);
+            line("ORDER," + order.getUserId() + "," + order.getId() + "," + csv(order.getOrderSn()) + ","
+                    + old.toPlainString() + "," + desired.toPlainString() + "," + delta.toPlainString() + ",");
+        }
+
+        void flushUser() {
+            if (currentUser == null || userOrders == 0) return;
+            line("USER," + currentUser + ",,," + userOld.toPlainString() + "," + userDesired.toPlainString() + ","
+                    + userDelta.toPlainString() + "," + userOrders);
+            users++;
+            userOrders = 0;
+            userOld = BigDecimal.ZERO;
+            userDesired = BigDecimal.ZERO;
+            userDelta = BigDecimal.ZERO;
+        }
+
+        void line(String s) {
+            try {
+                out.write(s);
+                out.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            out.close();
+        }
+
+        private static BigDecimal money(double v) {
+            return BigDecimal.valueOf(v).setScale(2, RoundingMode.HALF_UP);
+        }
+
+        private static String csv(String v) {
+            if (v == null) return "";
+            if (v.indexOf(',') < 0 && v.indexOf('"') < 0 && v.indexOf('\n') < 0) return v;
+            return '"' + v.replace("\"", "\"\"") + '"';
+        }
+    }
+
+    /**
+     * 单块写入（在块事务内执行）。
+     *
+     * @return [changedOrders, postedChanges]
+     */
+    private int[] applyChunk(List<Order> orders) {
+        List<Order> creditedUpdates = new ArrayList<>();
+        Set<Long> creditedUserIds = new HashSet<>();
+        Map<String, MoneyChange> changes = new LinkedHashMap<>();
+
+        for (Order order : orders) {
+            if (order.getUserId() == null) continue;
+
+            double oldCredited = order.getCreditedFee() == null ? 0.0d : order.getCreditedFee();
+            double desired = computeDesiredCredit(order);
+            double delta = desired - oldCredited;
+
+            boolean needWriteCredited = Math.abs(desired - oldCredited) >= 0.01d || (order.getCreditedFee() == null && desired != 0.0d);
+            if (!needWriteCredited) continue;
+
+            // 先尝试幂等插入流水（如果 delta==0 只回写 credited_fee，不动余额）
+            if (Math.abs(delta) >= 0.01d && order.getOrderSn() != null && !order.getOrderSn().isBlank()) {
+                String uuid = "10:" + order.getOrderSn() + ":" + format2(oldCredited) + "->" + format2(desired);
+                changes.put(uuid, moneyChange(order.getUserId(), order.getOrderSn(), delta, uuid));
+            }
+
+            // 回写 orders.credited_fee 作为锚点（无论是否插入流水成功，都应收敛到 desired）
+            Order upd = new Order();
+            upd.setId(order.getId());
+            upd.setCreateTime(order.getCreateTime());
+            upd.setCreditedFee(desired);
+            creditedUpdates.add(upd);
+            creditedUserIds.add(order.getUserId());
+        }
+
+        int posted = 0;
+        if (!changes.isEmpty()) {
+            Set<String> inserted = new HashSet<>(moneyChangeMapper.insertIgnoreBatch(new ArrayList<>(changes.values())));
+            // 按用户聚合本块增量：每用户每块只更新一次 money 行（逐单流水仍保留用于审计/幂等）
+            Map<String, BigDecimal[]> deltas = new TreeMap<>();
+            for (MoneyChange mc : changes.values()) {
+                if (inserted.contains(mc.getUuid())) {
+                    // 逐笔先按 DECIMAL(10,2) 口径取整再累加，与逐笔 updateBalance 的结果一致
+                    BigDecimal amount = BigDecimal.valueOf(mc.getAmount()).setScale(2, RoundingMode.HALF_UP);
+                    BigDecimal[] d = deltas.computeIfAbsent(String.valueOf(mc.getUserId()),
+                            k -> new BigDecimal[]{BigDecimal.ZERO, BigDecimal.ZERO});
+                    d[0] = d[0].add(amount);
+                    // 与 MoneyMapper.updateBalance 口径一致：total_income 只累计正向流水
+                    if (amount.signum() > 0) d[1] = d[1].add(amount);
+                    posted++;
+                    log.debug("Monthly reconcile: sn={}, userId={}, delta={}, uuid={}",
+                            mc.getOrderSn(), mc.getUserId(), mc.getAmount(), mc.getUuid());
+                } else {
+                    log.debug("Monthly reconcile skipped (idempotent): sn={}, userId={}, uuid={}",
+                            mc.getOrderSn(), mc.getUserId(), mc.getUuid());
+                }
+            }
+            applyBalanceDeltas(deltas);
+        }
+
+        if (!creditedUpdates.isEmpty()) {
+            // create_time 范围仅用于分区裁剪（匹配按 id），两端各放宽 1 秒
+            Date minCreateTime = null;
+            Date maxCreateTime = null;
+            for (Order upd : creditedUpdates) {
+                Date t = upd.getCreateTime();
+                if (t == null) {
+                    minCreateTime = null;
+                    maxCreateTime = null;
+                    break;
+                }
+                if (minCreateTime == null || t.before(minCreateTime)) minCreateTime = t;
+                if (maxCreateTime == null || t.after(maxCreateTime)) maxCreateTime = t;
+            }
+            orderMapper.batchUpdateCreditedFee(creditedUpdates,
+                    minCreateTime == null ? null : new Date(minCreateTime.getTime() - 1000L),
+                    maxCreateTime == null ? null : new Date(maxCreateTime.getTime() + 1000L));
+            // 块事务提交后重算涉及用户的收益汇总（credited_fee 变化）
+            userEarningsSummaryService.refreshUsersAfterCommit(creditedUserIds);
+        }
+        return new int[]{creditedUpdates.size(), posted};
+    }
+
+    /**
+     * 每用户一行累加余额；TreeMap 保证按 user_id 有序加锁，降低与并发提现/其他分区的死锁概率。
+     */
+    private void applyBalanceDeltas(Map<String, BigDecimal[]> deltas) {
+        if (deltas.isEmpty()) return;
+        List<Money> rows = new ArrayList<>(deltas.size());
+        deltas.forEach((userId, d) -> {
+            Money m = new Money();
+            m.setUserId(userId);
+            m.setBalance(d[0].doubleValue());
+            m.setTotalIncome(d[1].doubleValue());
+            rows.add(m);
+        });
+        // 结算/冲账可能早于前端首次查询钱包：先补齐缺失账户
+        moneyMapper.ensureAccounts(deltas.keySet());
+        moneyMapper.batchAddBalance(rows);
+    }
+
+    /**
+     * 回看窗口下界（按 create_time，月初对齐以便整分区裁剪）；未配置时为 null（全量）。
+     */
+    private Date minCreateTime() {
+        if (props.getLookbackMonths() <= 0) return null;
+        LocalDate from = LocalDate.now().withDayOfMonth(1).minusMonths(props.getLookbackMonths());
+        return Date.from(from.atStartOfDay(ZoneId.systemDefault()).toInstant());
+    }
+
+    /**
+     * 最终结算口径（与历史实现保持一致；与 OrderMapper.streamReconcileCandidates 的 SQL 预过滤同口径）：
+     * - 锁单：0
+     * - 失效：0（若历史已入账，则 delta 为负自动冲账）
+     * - 已结算：shareFee
+     * - 其他：0
+     */
+    static double computeDesiredCredit(Order order) {
+        if (order == null) return 0.0d;
+        if (order.getOrderLock() != null && order.getOrderLock() == 1) return 0.0d;
+        if (order.getOrderStatus() != null && order.getOrderStatus() == 3) return 0.0d;
+        if (order.getOrderStatus() != null && order.getOrderStatus() == 2) {
+            return order.getShareFee() == null ? 0.0d : order.getShareFee();
+        }
+        return 0.0d;
+    }
+
+    static String format2(Double v) {
+        if (v == null) return "0.00";
+        return String.format(Locale.ROOT, "%.2f", v);
+    }
+
+    private static MoneyChange moneyChange(Long userId, String orderSn, Double amount, String uuid) {
+        MoneyChange mc = new MoneyChange();
+        mc.setUserId(userId);
+        mc.setOrderSn(orderSn);
+        mc.setChangeType((short) 10);
+        mc.setAmount(amount);
+        mc.setUuid(uuid);
+        mc.setCreateTime(new Date());
+        return mc;
+    }
+}
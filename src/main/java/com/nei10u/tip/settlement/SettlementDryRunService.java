@@ -0,0 +1,97 @@
+package com.nei10u.tip.settlement;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 月度结算预演任务（只读，输出 gzip CSV 差异文件）。
+ * <p>
+ * - 同一时间只允许一个预演任务，后台单线程执行，调用方立即返回
+ * - 进度通过 {@link #progress()} 查询（已扫描订单数、状态、输出文件）
+ */
+@Slf4j
+@Service
+public class SettlementDryRunService {
+
+    public enum Status {IDLE, RUNNING, DONE, FAILED}
+
+    /**
+     * 预演进度快照。
+     */
+    public record DryRunProgress(String jobId, Status status, String file, long orders, long users,
+                                 BigDecimal totalDelta, Date startedAt, Date finishedAt, String error) {
+    }
+
+    private final MoneyReconcileEngine moneyReconcileEngine;
+    private final Path outputDir;
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "settlement-dry-run");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private final AtomicLong scanned = new AtomicLong();
+    private volatile DryRunProgress last = new DryRunProgress(null, Status.IDLE, null, 0, 0, null, null, null, null);
+
+    public SettlementDryRunService(MoneyReconcileEngine moneyReconcileEngine,
+                                   @Value("${app.settlement.dry-run.output-dir:${java.io.tmpdir}/tip-settlement}") String outputDir) {
+        this.moneyReconcileEngine = moneyReconcileEngine;
+        this.outputDir = Paths.get(outputDir);
+    }
+
+    /**
+     * 启动预演；已有任务运行中时返回当前进度，不重复启动。
+     */
+    public synchronized DryRunProgress start() {
+        if (last.status() == Status.RUNNING) return progress();
+
+        String jobId = new SimpleDateFormat("yyyyMMddHHmmss").format(new Date());
+        Path file = outputDir.resolve("settlement-dry-run-" + jobId + ".csv.gz");
+        Date startedAt = new Date();
+        scanned.set(0);
+        last = new DryRunProgress(jobId, Status.RUNNING, file.toString(), 0, 0, null, startedAt, null, null);
+
+        executor.execute(() -> {
+            try {
+                Files.createDirectories(outputDir);
+                MoneyReconcileEngine.DryRunReport r = moneyReconcileEngine.dryRun(file, scanned::set);
+                last = new DryRunProgress(jobId, Status.DONE, file.toString(), r.orders(), r.users(),
+                        r.totalDelta(), startedAt, new Date(), null);
+                log.info("Settlement dry-run done: file={}, orders={}, users={}, totalDelta={}, costMs={}",
+                        file, r.orders(), r.users(), r.totalDelta(), r.costMs());
+            } catch (Exception e) {
+                log.error("Settlement dry-run failed: file={}", file, e);
+                last = new DryRunProgress(jobId, Status.FAILED, file.toString(), scanned.get(), 0, null,
+                        startedAt, new Date(), e.getMessage());
+            }
+        });
+        return last;
+    }
+
+    /**
+     * 当前（或最近一次）预演进度。
+     */
+    public DryRunProgress progress() {
+        DryRunProgress p = last;
+        if (p.status() != Status.RUNNING) return p;
+        return new DryRunProgress(p.jobId(), p.status(), p.file(), scanned.get(), p.users(), p.totalDelta(),
+                p.startedAt(), null, null);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,44 @@
+package com.nei10u.tip.settlement;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * 月度结算参数（application.yml: app.settlement.monthly.*）。
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.settlement.monthly")
+public class SettlementProperties {
+
+    /**
+     * 每个提交块（一个事务）处理的订单数
+     */
+    private int chunkSize = 500;
+
+    /**
+     * 按 MOD(user_id, K) 切分的分区数；分区数变化视为新批次（断点不复用）
+     */
+    private int partitions = 4;
+
+    /**
+     * 并行执行分区的线程数（不超过分区数）；每个运行中的分区占用 2 个数据库连接（游标 + 块事务）
+     */
+    private int parallelism = 4;
+
+    /**
+     * 是否启用分区断点（同一天内重跑时跳过已完成分区、未完成分区从断点续跑）
+     */
+    private boolean checkpointEnabled = true;
+
+    /**
+     * 断点保留天数
+     */
+    private int checkpointRetainDays = 40;
+
+    /**
+     * 候选订单回看月数（按 create_time）；0 表示不限。设置后结算扫描只触及最近的 orders 分区
+     */
+    private int lookbackMonths = 0;
+}
@@ -5,6 +5,7 @@ import com.baomidou.mybatisplus.core.conditions.update.LambdaUpdateWrapper;
 import com.nei10u.tip.exception.BusinessException;
 import com.nei10u.tip.mapper.UserMapper;
 import com.nei10u.tip.model.User;
+import com.nei10u.tip.ordersync.OrderUserResolver;
 import com.taobao.api.DefaultTaobaoClient;
 import com.taobao.api.TaobaoClient;
 import com.taobao.api.request.TbkScPublisherInfoSaveRequest;
@@ -40,6 +41,7 @@ public class TbAuthService {
     private final TbProperties tbProperties;
     private final RedisTemplate<String, Object> redisTemplate;
     private final UserMapper userMapper;
+    private final OrderUserResolver orderUserResolver;
 
     private String stateKey(String state) {
         return "tb:oauth:state:" + state;
@@ -251,6 +253,8 @@ public class TbAuthService {
             upd.setRelationId(relationId);
         }
         userMapper.updateById(upd);
+        // 订单归属缓存：新 relationId/specialId 可能命中负缓存，旧键可能仍指向该用户
+        orderUserResolver.invalidateUserAfterCommit(userId, specialId, relationId);
 
         // 成功：写结果、清 state
         saveResult(state, "SUCCESS", "授权成功");
@@ -0,0 +1,19 @@
+package com.nei10u.tip.vo;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 游标分页结果（keyset pagination）。
+ */
+@Data
+public class CursorPageVO<T> {
+    private List<T> records = new ArrayList<>();
+    /** 下一页游标；无更多数据时为 null */
+    private String nextCursor;
+    private boolean hasMore;
+    /** 总数；请求未要求统计时为 null */
+    private Long total;
+}
@@ -0,0 +1,20 @@
+package com.nei10u.tip.vo;
+
+import lombok.Data;
+
+/**
+ * 用户收益概览（user_earnings_summary 单用户聚合结果）。
+ */
+@Data
+public class UserEarningsOverviewVO {
+    /** 汇总分桶数；0 表示该用户尚无汇总行 */
+    private Integer bucketCount;
+    private Integer totalOrders;
+    private Integer validOrders;
+    private Double totalEstimateIncome;
+    private Double settledIncome;
+    private Double currentMonthReceivable;
+    private Double nextMonthReceivable;
+    private Double toBeReceive;
+    private Double creditedTotal;
+}
@@ -92,6 +92,9 @@ CREATE INDEX IF NOT EXISTS idx_users_relation_id ON users(relation_id);
 CREATE INDEX IF NOT EXISTS idx_users_union_id ON users(union_id);
 CREATE INDEX IF NOT EXISTS idx_users_token ON users(token);
 CREATE INDEX IF NOT EXISTS idx_users_jd_auth_id ON users(jd_auth_id);
+-- 订单归属批量解析（OrderUserResolver）按 special_id / pdd_pid IN 查询
+CREATE INDEX IF NOT EXISTS idx_users_special_id ON users(special_id);
+CREATE INDEX IF NOT EXISTS idx_users_pdd_pid ON users(pdd_pid);
 
 -- 模拟用户数据（用于本地调试）
 INSERT INTO users (
@@ -122,10 +125,14 @@ SELECT setval(
     GREATEST((SELECT COALESCE(MAX(id), 0) FROM users), 999)
 );
 
--- 订单表
+-- 订单表：按 create_time 月度范围分区（分区由 OrderPartitionService 启动时及每日预建，见 orders_pYYYYMM / orders_default）
+-- 分区表的主键/唯一约束必须包含分区键：主键 (id, create_time)，upsert 冲突目标为 uk_orders_order_sn_create_time；
+-- 订单号本身的唯一性由 order_sn_keys（order_sn -> create_time 登记表）保证，写入侧按登记值固定 create_time。
+-- create_time 统一为毫秒精度（与 java.util.Date 往返一致，否则 (order_sn, create_time) / (id, create_time) 等值匹配会落空）。
+-- 历史非分区库不受本语句影响，迁移步骤见 scripts/migration/orders_partitioning.sql
 CREATE TABLE IF NOT EXISTS orders (
-    id BIGSERIAL PRIMARY KEY,
-    order_sn VARCHAR(64) NOT NULL UNIQUE,
+    id BIGSERIAL,
+    order_sn VARCHAR(64) NOT NULL,
     ds_order_sn VARCHAR(64),
     order_title VARCHAR(255),
     img VARCHAR(512),
@@ -165,9 +172,12 @@ CREATE TABLE IF NOT EXISTS orders (
     pay_month VARCHAR(8),
     -- 预估结算日期（yyyy-MM-dd），便于直接展示
     estimate_date VARCHAR(16),
-    create_time TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
-    update_time TIMESTAMP DEFAULT CURRENT_TIMESTAMP
-);
+    -- 同步内容指纹（业务字段 MD5）：upsert 时指纹未变则跳过更新
+    fingerprint VARCHAR(32),
+    create_time TIMESTAMP NOT NULL DEFAULT date_trunc('milliseconds', CURRENT_TIMESTAMP),
+    update_time TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (id, create_time)
+) PARTITION BY RANGE (create_time);
 
 -- 兼容历史数据库：增量加字段（若表已存在）
 ALTER TABLE orders ADD COLUMN IF NOT EXISTS user_id BIGINT;
@@ -191,6 +201,30 @@ ALTER TABLE orders ADD COLUMN IF NOT EXISTS earn_time TIMESTAMP;
 ALTER TABLE orders ADD COLUMN IF NOT EXISTS modify_time TIMESTAMP;
 ALTER TABLE orders ADD COLUMN IF NOT EXISTS pay_month VARCHAR(8);
 ALTER TABLE orders ADD COLUMN IF NOT EXISTS estimate_date VARCHAR(16);
+ALTER TABLE orders ADD COLUMN IF NOT EXISTS fingerprint VARCHAR(32);
+
+-- 分区键不允许为空：历史库补齐空 create_time 后加 NOT NULL（已为 NOT NULL 时为空操作）；默认值截断到毫秒
+UPDATE orders SET create_time = date_trunc('milliseconds', COALESCE(update_time, CURRENT_TIMESTAMP)) WHERE create_time IS NULL;
+ALTER TABLE orders ALTER COLUMN create_time SET NOT NULL;
+ALTER TABLE orders ALTER COLUMN create_time SET DEFAULT date_trunc('milliseconds', CURRENT_TIMESTAMP);
+-- upsert 冲突目标 (order_sn, create_time)：分区表与历史非分区表通用
+CREATE UNIQUE INDEX IF NOT EXISTS uk_orders_order_sn_create_time ON orders(order_sn, create_time);
+
+-- 订单号登记表：分区表上无法建 UNIQUE(order_sn)，由此表保证同一订单号只对应一个 create_time（即只有一行订单）。
+-- 新订单落库前先登记（已登记则取回登记值），见 OrderMapper.registerOrderSnKeys
+CREATE TABLE IF NOT EXISTS order_sn_keys (
+    order_sn VARCHAR(64) PRIMARY KEY,
+    create_time TIMESTAMP NOT NULL
+);
+-- 一次性（登记表为空时）：历史 create_time 截断到毫秒，再按现有订单登记；登记表非空时两条语句都不扫描 orders
+UPDATE orders SET create_time = date_trunc('milliseconds', create_time)
+WHERE create_time <> date_trunc('milliseconds', create_time)
+  AND NOT EXISTS (SELECT 1 FROM order_sn_keys);
+INSERT INTO order_sn_keys (order_sn, create_time)
+SELECT order_sn, MIN(create_time) FROM orders
+WHERE NOT EXISTS (SELECT 1 FROM order_sn_keys)
+GROUP BY order_sn
+ON CONFLICT (order_sn) DO NOTHING;
 
 -- 索引（放在增量加字段之后，避免历史库缺列导致建索引失败）
 CREATE INDEX IF NOT EXISTS idx_orders_sid ON orders(sid);
@@ -198,9 +232,63 @@ CREATE INDEX IF NOT EXISTS idx_orders_relation_id ON orders(relation_id);
 CREATE INDEX IF NOT EXISTS idx_orders_special_id ON orders(special_id);
 CREATE INDEX IF NOT EXISTS idx_orders_adzone_id ON orders(adzone_id);
 CREATE INDEX IF NOT EXISTS idx_orders_user_id ON orders(user_id);
+-- 退款/处罚补偿按 ds_order_sn（淘宝 tradeId）批量定位
+CREATE INDEX IF NOT EXISTS idx_orders_ds_order_sn ON orders(ds_order_sn);
 CREATE INDEX IF NOT EXISTS idx_orders_create_time ON orders(create_time);
+-- 订单列表游标分页（user_id + (create_time, id) keyset）
+CREATE INDEX IF NOT EXISTS idx_orders_user_create_time_id ON orders(user_id, create_time DESC, id DESC);
 
 CREATE INDEX IF NOT EXISTS idx_orders_pay_month ON orders(pay_month);
+-- 用户统计概览（OrderMapper.selectUserSummary）覆盖索引：单次 index-only scan 完成全部 FILTER 聚合
+-- INCLUDE 需 PostgreSQL 11+；order_lock / refund_status 为“可入账”口径所需
+CREATE INDEX IF NOT EXISTS idx_orders_user_summary ON orders(user_id, order_status, pay_month)
+    INCLUDE (share_fee, credited_fee, order_lock, refund_status);
+
+-- 订单批量导入暂存（UNLOGGED：不写 WAL，崩溃后清空；仅作 COPY -> 合并的中转）
+-- 列与 orders upsert 列一致（文本列不限长，长度由合并写入 orders 时校验）；batch_id 隔离并发导入，合并后按批次删除
+CREATE UNLOGGED TABLE IF NOT EXISTS orders_ingest_staging (
+    batch_id VARCHAR(36) NOT NULL,
+    order_sn TEXT NOT NULL,
+    ds_order_sn TEXT,
+    order_title TEXT,
+    img TEXT,
+    user_id BIGINT,
+    sid TEXT,
+    relation_id BIGINT,
+    special_id BIGINT,
+    adzone_id BIGINT,
+    type_no INTEGER,
+    type_name TEXT,
+    union_platform TEXT,
+    order_price DECIMAL(10, 2),
+    pay_price DECIMAL(10, 2),
+    share_rate DECIMAL(10, 2),
+    share_fee DECIMAL(10, 2),
+    credited_fee DECIMAL(10, 2),
+    gross_share_fee DECIMAL(10, 2),
+    base_deduction_rate DECIMAL(10, 4),
+    base_deduction_fee DECIMAL(10, 2),
+    platform_profit_rate DECIMAL(10, 4),
+    platform_profit_fee DECIMAL(10, 2),
+    user_discount DECIMAL(10, 4),
+    order_discount DECIMAL(10, 4),
+    order_status SMALLINT,
+    order_real_status INTEGER,
+    refund_status INTEGER,
+    order_lock INTEGER,
+    punish_reason TEXT,
+    status_content TEXT,
+    create_time TIMESTAMP NOT NULL,
+    pay_time TIMESTAMP,
+    earn_time TIMESTAMP,
+    modify_time TIMESTAMP,
+    pay_month TEXT,
+    estimate_date TEXT,
+    update_time TIMESTAMP,
+    fingerprint TEXT
+);
+
+CREATE INDEX IF NOT EXISTS idx_orders_ingest_staging_batch_id ON orders_ingest_staging(batch_id);
 
 -- 资金表
 CREATE TABLE IF NOT EXISTS money (
@@ -231,15 +319,48 @@ CREATE INDEX IF NOT EXISTS idx_money_change_order_sn ON money_change(order_sn);
 -- 淘宝退款明细/证据链（最小可审计：保存原始 JSON；后续可再结构化拆字段）
 CREATE TABLE IF NOT EXISTS tb_order_refund (
     id BIGSERIAL PRIMARY KEY,
-    trade_id VARCHAR(64) NOT NULL UNIQUE,
+    trade_id VARCHAR(64) NOT NULL,
+    -- 证据来源：ORDER（订单同步 refund_tag=1）/ REFUND（退款报表同步）；每个来源各一行，互不覆盖
+    source VARCHAR(16) NOT NULL DEFAULT 'ORDER',
     order_sn VARCHAR(64),
     raw_json TEXT,
+    -- raw_json 的 MD5（批量写入时证据未变化则跳过更新）
+    raw_hash VARCHAR(32),
     create_time TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
     update_time TIMESTAMP DEFAULT CURRENT_TIMESTAMP
 );
 
+ALTER TABLE tb_order_refund ADD COLUMN IF NOT EXISTS raw_hash VARCHAR(32);
+ALTER TABLE tb_order_refund ADD COLUMN IF NOT EXISTS source VARCHAR(16) NOT NULL DEFAULT 'ORDER';
+-- 唯一键由 trade_id 改为 (trade_id, source)（历史库删除原 trade_id 唯一约束）
+ALTER TABLE tb_order_refund DROP CONSTRAINT IF EXISTS tb_order_refund_trade_id_key;
+CREATE UNIQUE INDEX IF NOT EXISTS uk_tb_order_refund_trade_id_source ON tb_order_refund(trade_id, source);
+
 CREATE INDEX IF NOT EXISTS idx_tb_order_refund_order_sn ON tb_order_refund(order_sn);
 
+-- 淘宝订单回溯切片断点（崩溃后按 run_key 续跑，已完成切片直接跳过）
+CREATE TABLE IF NOT EXISTS tb_sync_slice_checkpoint (
+    id BIGSERIAL PRIMARY KEY,
+    run_key VARCHAR(64) NOT NULL,
+    slice_start TIMESTAMP NOT NULL,
+    order_count INTEGER DEFAULT 0,
+    create_time TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    update_time TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    UNIQUE (run_key, slice_start)
+);
+
+CREATE INDEX IF NOT EXISTS idx_tb_sync_slice_checkpoint_update_time ON tb_sync_slice_checkpoint(update_time);
+
+-- 淘宝订单增量同步高水位（按 order_scene + sync_type；仅在窗口全部落库成功后推进）
+CREATE TABLE IF NOT EXISTS tb_sync_watermark (
+    id BIGSERIAL PRIMARY KEY,
+    order_scene BIGINT NOT NULL,
+    sync_type VARCHAR(32) NOT NULL,
+    watermark TIMESTAMP NOT NULL,
+    update_time TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    UNIQUE (order_scene, sync_type)
+);
+
 -- 转链/分享：推广信息表（用于生成可追踪的分享链接）
 CREATE TABLE IF NOT EXISTS promotion_info (
     id BIGSERIAL PRIMARY KEY,
@@ -351,3 +472,53 @@ COMMENT ON COLUMN ds_config_activity.status IS '状态：1=启用；0=停用（
 
 CREATE INDEX IF NOT EXISTS idx_ds_config_activity_status ON ds_config_activity(status);
 CREATE INDEX IF NOT EXISTS idx_ds_config_activity_support ON ds_config_activity(support_app, support_mini, support_banner);
+
+-- 淘宝退款补偿按日状态（近期高频、远期指数退避、稳定日降为冷数据按天回访）
+CREATE TABLE IF NOT EXISTS tb_refund_day_state (
+    id BIGSERIAL PRIMARY KEY,
+    biz_type BIGINT NOT NULL,
+    sync_day DATE NOT NULL,
+    last_sync_time TIMESTAMP,
+    row_count INTEGER DEFAULT 0,
+    -- 当日报表行 raw_json 哈希的摘要
+    content_hash VARCHAR(32),
+    -- 连续内容未变化的同步次数
+    stable_runs INTEGER DEFAULT 0,
+    cold BOOLEAN DEFAULT FALSE,
+    create_time TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    update_time TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    UNIQUE (biz_type, sync_day)
+);
+
+-- 月度结算分区断点（按 user_id 哈希分区，每分区独立游标与断点）
+CREATE TABLE IF NOT EXISTS settlement_checkpoint (
+    id BIGSERIAL PRIMARY KEY,
+    run_key VARCHAR(64) NOT NULL,
+    partition_no INTEGER NOT NULL,
+    -- 已提交块的最大订单 id（续跑时从其后开始）
+    last_id BIGINT DEFAULT 0,
+    done BOOLEAN DEFAULT FALSE,
+    create_time TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    update_time TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    UNIQUE (run_key, partition_no)
+);
+
+CREATE INDEX IF NOT EXISTS idx_settlement_checkpoint_update_time ON settlement_checkpoint(update_time);
+
+-- 用户收益汇总（按 user_id + pay_month 分桶，pay_month 为空的订单归入 '' 桶）
+-- 由订单落库/结算/退款/处罚同步按“涉及用户”重算；每日重建任务校验并修复漂移
+CREATE TABLE IF NOT EXISTS user_earnings_summary (
+    user_id BIGINT NOT NULL,
+    pay_month VARCHAR(8) NOT NULL DEFAULT '',
+    -- 订单数（全部状态）/ 有效订单数（order_status IN (1,2)）
+    order_count INTEGER NOT NULL DEFAULT 0,
+    valid_order_count INTEGER NOT NULL DEFAULT 0,
+    -- 预估佣金（全部状态）/ 已结算佣金（order_status = 2）
+    share_fee_total DECIMAL(14, 2) NOT NULL DEFAULT 0.00,
+    settled_share_fee DECIMAL(14, 2) NOT NULL DEFAULT 0.00,
+    -- 预计可入账（排除失效/锁单/维权中，与 sumReceivableByPayMonth 同口径）
+    receivable_fee DECIMAL(14, 2) NOT NULL DEFAULT 0.00,
+    credited_fee DECIMAL(14, 2) NOT NULL DEFAULT 0.00,
+    update_time TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (user_id, pay_month)
+);